@@ -0,0 +1,115 @@
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lastgenerator für die Report-Endpunkte: viele gleichzeitige Clients rufen reihum die angegebenen
+ * Pfade auf, gemessen werden Durchsatz und Latenz-Perzentile.
+ * <p>
+ * Aufruf (Backend läuft, ein Report ist hochgeladen):
+ * <pre>
+ * java benchmark/ReportLoadBenchmark.java [baseUrl] [clients] [seconds] [path...]
+ * java benchmark/ReportLoadBenchmark.java http://localhost:8080 800 20 /api/reports/portfolio/summary
+ * </pre>
+ */
+public class ReportLoadBenchmark {
+
+    private static final List<String> DEFAULT_PATHS = List.of(
+            "/api/reports/summary",
+            "/api/reports/portfolio/summary",
+            "/api/reports/dashboard?views=summary,portfolio/summary,transactions/summary",
+            "/api/reports/transactions/all?limit=50");
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = args.length > 0 ? args[0] : "http://localhost:8080";
+        int clients = args.length > 1 ? Integer.parseInt(args[1]) : 400;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 20;
+        List<String> paths = args.length > 3 ? Arrays.asList(args).subList(3, args.length) : DEFAULT_PATHS;
+
+        ExecutorService clientExecutor = Executors.newFixedThreadPool(8);
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .executor(clientExecutor)
+                .build();
+        List<HttpRequest> requests = paths.stream()
+                .map(path -> HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(Duration.ofSeconds(30)).build())
+                .toList();
+
+        // Aufwärmen: Caches füllen und JIT anwerfen
+        for (int i = 0; i < 200; i++) {
+            client.send(requests.get(i % requests.size()), HttpResponse.BodyHandlers.discarding());
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(clients);
+        List<long[]> latencies = new ArrayList<>();
+        int[] counts = new int[clients];
+        AtomicLong errors = new AtomicLong();
+        CountDownLatch done = new CountDownLatch(clients);
+        long end = System.nanoTime() + Duration.ofSeconds(seconds).toNanos();
+
+        for (int c = 0; c < clients; c++) {
+            long[] samples = new long[1 << 16];
+            latencies.add(samples);
+            int index = c;
+            pool.execute(() -> {
+                int n = 0;
+                try {
+                    while (System.nanoTime() < end) {
+                        HttpRequest request = requests.get((index + n) % requests.size());
+                        long start = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() >= 400) {
+                                errors.incrementAndGet();
+                            }
+                        } catch (Exception e) {
+                            errors.incrementAndGet();
+                        }
+                        if (n < samples.length) {
+                            samples[n] = System.nanoTime() - start;
+                        }
+                        n++;
+                    }
+                } finally {
+                    counts[index] = Math.min(n, samples.length);
+                    done.countDown();
+                }
+            });
+        }
+        done.await();
+        pool.shutdown();
+        clientExecutor.shutdownNow();
+
+        long total = Arrays.stream(counts).sum();
+        long[] all = new long[(int) total];
+        int offset = 0;
+        for (int c = 0; c < clients; c++) {
+            System.arraycopy(latencies.get(c), 0, all, offset, counts[c]);
+            offset += counts[c];
+        }
+        Arrays.sort(all);
+
+        System.out.printf("clients=%d duration=%ds requests=%d errors=%d%n", clients, seconds, total, errors.get());
+        System.out.printf("throughput=%.0f req/s%n", total / (double) seconds);
+        System.out.printf("latency ms: p50=%.1f p95=%.1f p99=%.1f p99.9=%.1f max=%.1f%n",
+                percentile(all, 0.50), percentile(all, 0.95), percentile(all, 0.99), percentile(all, 0.999),
+                all.length > 0 ? all[all.length - 1] / 1e6 : 0);
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(p * sorted.length) - 1)] / 1e6;
+    }
+}
@@ -0,0 +1,210 @@
+package com.kalk.broker.backend.cache;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+import com.kalk.broker.backend.events.PrecomputedEvent;
+import com.kalk.broker.backend.events.ReportEventBroadcaster;
+import com.kalk.broker.backend.pojo.Report;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Cache für aus einem Report abgeleitete Daten (Portfolio-Stufen, Transaktionen, Ledger, ...).
+ * Einträge sind nach Report-Version und Name getrennt, so dass ein neuer Upload nie
+ * veraltete Ergebnisse liefert. Abgeleitete Werte gelten als unveränderlich.
+ * Gleichzeitige Fehlzugriffe auf denselben Eintrag werden über {@link SingleFlight} gebündelt,
+ * jede abgeschlossene Berechnung wird als {@link PrecomputedEvent} gemeldet.
+ * <p>
+ * Gecacht wird nur für gehaltene Versionen ({@link #registerVersion}). Endet eine Berechnung erst,
+ * nachdem ihre Version verdrängt wurde, wird das Ergebnis verworfen statt dauerhaft liegen zu bleiben.
+ * <p>
+ * Der Speicher ist über ein eigenes Byte-Budget begrenzt ({@code broker.report-cache.max-bytes}).
+ * Die Größe eines Eintrags wird grob aus der Zahl seiner Elemente geschätzt: bei Listen, Maps und Arrays
+ * automatisch, bei anderen Werten über einen Zähler des Aufrufers. Wird das Budget überschritten, verlieren die am längsten nicht genutzten Versionen
+ * ihre Einträge; sie bleiben gehalten und werden bei Bedarf neu berechnet.
+ */
+@Component
+public class ReportCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReportCache.class);
+
+    private static final int ENTRY_OVERHEAD_BYTES = 1024;
+    private static final int BYTES_PER_ELEMENT = 64;
+
+    private final Map<CacheKey, Cached> entries = new ConcurrentHashMap<>();
+    private final Map<Long, VersionState> liveVersions = new ConcurrentHashMap<>();
+    private final AtomicLong usedBytes = new AtomicLong();
+    private final long maxBytes;
+    private final SingleFlight singleFlight;
+    private final ReportEventBroadcaster eventBroadcaster;
+
+    public ReportCache(SingleFlight singleFlight, ReportEventBroadcaster eventBroadcaster,
+                       @Value("${broker.report-cache.max-bytes:536870912}") long maxBytes) {
+        this.singleFlight = singleFlight;
+        this.eventBroadcaster = eventBroadcaster;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Liefert den gecachten Wert für Report-Version und Name oder berechnet ihn.
+     * Der Supplier läuft außerhalb von Map-Sperren, damit er selbst wieder auf den Cache zugreifen darf;
+     * gleichzeitige Aufrufer desselben Eintrags teilen sich eine Berechnung.
+     *
+     * @param report der Report, aus dem der Wert abgeleitet wird
+     * @param name Name des abgeleiteten Werts, inkl. aller Parameter
+     * @param supplier Berechnung des Werts (darf {@code null} liefern)
+     * @return der gecachte oder neu berechnete Wert
+     */
+    public <T> T get(Report report, String name, Supplier<T> supplier) {
+        return get(report, name, supplier, ReportCache::countElements);
+    }
+
+    /**
+     * Wie {@link #get(Report, String, Supplier)}, für Werte, deren Größe sich nicht an einer Collection
+     * ablesen lässt
+     *
+     * @param elements Anzahl der Elemente eines berechneten Werts (Positionen, Zeilen, Tage, ...) als Maß
+     *                 für dessen Speicherbedarf; Elemente anderer Einträge, auf die er nur verweist, zählen nicht
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(Report report, String name, Supplier<T> supplier, ToLongFunction<? super T> elements) {
+        CacheKey key = new CacheKey(report.getVersion(), name);
+        Cached cached = entries.get(key);
+        if (cached != null) {
+            touch(key.version());
+            return (T) cached.value();
+        }
+
+        return singleFlight.execute(report, "cache." + name, () -> {
+            Cached current = entries.get(key);
+            if (current != null) {
+                return (T) current.value();
+            }
+            long start = System.nanoTime();
+            T value = supplier.get();
+            store(key, new Cached(value, ENTRY_OVERHEAD_BYTES
+                    + (value != null ? elements.applyAsLong(value) * BYTES_PER_ELEMENT : 0)));
+            eventBroadcaster.publish(report.getWorkspaceId(), ReportEventBroadcaster.PRECOMPUTED,
+                    new PrecomputedEvent(report.getVersion(), name, (System.nanoTime() - start) / 1_000_000));
+            return value;
+        });
+    }
+
+    private void store(CacheKey key, Cached cached) {
+        VersionState state = liveVersions.get(key.version());
+        if (state == null || entries.putIfAbsent(key, cached) != null) {
+            return;
+        }
+        usedBytes.addAndGet(cached.weight());
+        // evictVersion kann zwischen Prüfung und Einfügen gelaufen sein
+        if (liveVersions.get(key.version()) != state) {
+            remove(key, cached);
+        } else if (usedBytes.get() > maxBytes) {
+            trim(key.version());
+        }
+    }
+
+    /**
+     * Verwirft die Einträge der am längsten nicht genutzten Versionen, bis das Budget eingehalten ist.
+     * Die Version des gerade gespeicherten Eintrags bleibt erhalten.
+     */
+    private synchronized void trim(long keep) {
+        // Zugriffszeiten vorher festhalten, sie ändern sich durch parallele Leser
+        List<Candidate> candidates = new ArrayList<>();
+        liveVersions.forEach((version, state) -> candidates.add(new Candidate(version, state.lastAccess)));
+        candidates.sort(Comparator.comparingLong(Candidate::lastAccess));
+        for (Candidate candidate : candidates) {
+            if (usedBytes.get() <= maxBytes) {
+                return;
+            }
+            if (candidate.version() != keep) {
+                logger.debug("Dropping derived data of report {} to stay within the cache budget", candidate.version());
+                removeEntries(candidate.version());
+            }
+        }
+    }
+
+    private void touch(long version) {
+        VersionState state = liveVersions.get(version);
+        if (state != null) {
+            state.lastAccess = System.nanoTime();
+        }
+    }
+
+    /**
+     * Meldet eine gehaltene Report-Version an; erst dann werden ihre abgeleiteten Werte gecacht
+     */
+    public void registerVersion(long version) {
+        liveVersions.putIfAbsent(version, new VersionState());
+    }
+
+    /**
+     * Entfernt alle Einträge einer Report-Version (Report ersetzt oder verdrängt)
+     */
+    public void evictVersion(long version) {
+        liveVersions.remove(version);
+        removeEntries(version);
+    }
+
+    /**
+     * Entfernt alle Einträge
+     */
+    public void clear() {
+        liveVersions.clear();
+        entries.forEach(this::remove);
+    }
+
+    private void removeEntries(long version) {
+        entries.forEach((key, cached) -> {
+            if (key.version() == version) {
+                remove(key, cached);
+            }
+        });
+    }
+
+    private void remove(CacheKey key, Cached cached) {
+        if (entries.remove(key, cached)) {
+            usedBytes.addAndGet(-cached.weight());
+        }
+    }
+
+    private static long countElements(Object value) {
+        if (value instanceof Optional<?> optional) {
+            return optional.map(ReportCache::countElements).orElse(0L);
+        }
+        if (value instanceof Collection<?> collection) {
+            return collection.size();
+        }
+        if (value instanceof Map<?, ?> map) {
+            return map.size();
+        }
+        if (value instanceof Object[] array) {
+            return array.length;
+        }
+        return 1;
+    }
+
+    private record CacheKey(long version, String name) {
+    }
+
+    private record Cached(Object value, long weight) {
+    }
+
+    private record Candidate(long version, long lastAccess) {
+    }
+
+    private static final class VersionState {
+        private volatile long lastAccess = System.nanoTime();
+    }
+}
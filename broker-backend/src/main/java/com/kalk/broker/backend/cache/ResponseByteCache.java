@@ -0,0 +1,107 @@
+package com.kalk.broker.backend.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Cache für fertig serialisierte Antworten (und deren bei Bedarf ergänzte gzip-Variante) der Report-Endpunkte.
+ * Einträge sind an die Report-Version gebunden und werden verworfen, sobald der Report ersetzt
+ * oder aus dem Speicher verdrängt wird. Der Speicher ist über ein Byte-Budget begrenzt (LRU).
+ */
+@Component
+public class ResponseByteCache {
+
+    private final long maxBytes;
+    private final int maxEntryBytes;
+    private final LinkedHashMap<EntryKey, CachedResponse> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private long usedBytes;
+
+    public ResponseByteCache(@Value("${broker.response-cache.max-bytes:33554432}") long maxBytes,
+                             @Value("${broker.response-cache.max-entry-bytes:4194304}") int maxEntryBytes) {
+        this.maxBytes = maxBytes;
+        this.maxEntryBytes = maxEntryBytes;
+    }
+
+    public synchronized CachedResponse get(long version, String key) {
+        return entries.get(new EntryKey(version, key));
+    }
+
+    /**
+     * Ob eine Antwort dieser Größe überhaupt gespeichert würde; vor dem Kopieren des Bodys zu prüfen
+     */
+    public boolean fits(long bytes) {
+        return bytes <= maxEntryBytes && bytes <= maxBytes;
+    }
+
+    /**
+     * Speichert eine Antwort, sofern sie in das Budget passt
+     */
+    public synchronized void put(long version, String key, CachedResponse response) {
+        if (!fits(response.size())) {
+            return;
+        }
+        CachedResponse previous = entries.put(new EntryKey(version, key), response);
+        usedBytes += response.size() - (previous != null ? previous.size() : 0);
+        trim();
+    }
+
+    /**
+     * Ersetzt eine vorhandene Antwort (z.B. um die gzip-Variante ergänzt); ist der Eintrag inzwischen
+     * verdrängt oder passt die neue Größe nicht mehr, bleibt der Cache unverändert
+     */
+    public synchronized void replace(long version, String key, CachedResponse response) {
+        EntryKey entryKey = new EntryKey(version, key);
+        CachedResponse previous = entries.get(entryKey);
+        if (previous == null || !fits(response.size())) {
+            return;
+        }
+        entries.put(entryKey, response);
+        usedBytes += response.size() - previous.size();
+        trim();
+    }
+
+    private void trim() {
+        Iterator<CachedResponse> eldest = entries.values().iterator();
+        while (usedBytes > maxBytes && eldest.hasNext()) {
+            usedBytes -= eldest.next().size();
+            eldest.remove();
+        }
+    }
+
+    /**
+     * Entfernt alle Antworten einer Report-Version
+     */
+    public synchronized void evictVersion(long version) {
+        Iterator<Map.Entry<EntryKey, CachedResponse>> iterator = entries.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<EntryKey, CachedResponse> entry = iterator.next();
+            if (entry.getKey().version() == version) {
+                usedBytes -= entry.getValue().size();
+                iterator.remove();
+            }
+        }
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        usedBytes = 0;
+    }
+
+    private record EntryKey(long version, String key) {
+    }
+
+    /**
+     * Serialisierte Antwort: Status 200, Header ohne Längenangaben, Body und optional gzip-Body
+     */
+    public record CachedResponse(Map<String, List<String>> headers, byte[] body, byte[] gzipBody) {
+
+        long size() {
+            return body.length + (gzipBody != null ? gzipBody.length : 0);
+        }
+    }
+}
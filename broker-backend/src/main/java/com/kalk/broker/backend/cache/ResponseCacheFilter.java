@@ -0,0 +1,181 @@
+package com.kalk.broker.backend.cache;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.GZIPOutputStream;
+
+import com.kalk.broker.backend.csv.FileImporter;
+import com.kalk.broker.backend.exception.InvalidQueryException;
+import com.kalk.broker.backend.pojo.Report;
+import com.kalk.broker.backend.workspace.WorkspaceResolver;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+/**
+ * Liefert wiederholte GET-Anfragen der Report-Endpunkte aus dem {@link ResponseByteCache}.
+ * Der Schlüssel besteht aus Pfad, Query, den für die Darstellung relevanten Request-Headern
+ * und der Report-Version des Arbeitsbereichs (Versionen sind global eindeutig). Bei einem Treffer werden die
+ * gespeicherten Bytes direkt geschrieben, ohne Controller und Serialisierung. Ein Eintrag bedient Clients mit
+ * und ohne gzip: die komprimierte Variante wird erst beim ersten Treffer eines gzip-fähigen Clients erzeugt
+ * und dann mitgespeichert.
+ */
+@Component
+public class ResponseCacheFilter extends OncePerRequestFilter {
+
+    private static final String PATH_PREFIX = "/api/reports/";
+    private static final int GZIP_MIN_BYTES = 2048;
+    private static final Set<String> SKIPPED_HEADERS = Set.of(
+            HttpHeaders.CONTENT_LENGTH.toLowerCase(), HttpHeaders.TRANSFER_ENCODING.toLowerCase(),
+            HttpHeaders.DATE.toLowerCase(), HttpHeaders.CONTENT_ENCODING.toLowerCase());
+
+    private final FileImporter fileImporter;
+    private final WorkspaceResolver workspaceResolver;
+    private final ResponseByteCache responseByteCache;
+
+    public ResponseCacheFilter(FileImporter fileImporter, WorkspaceResolver workspaceResolver,
+                               ResponseByteCache responseByteCache) {
+        this.fileImporter = fileImporter;
+        this.workspaceResolver = workspaceResolver;
+        this.responseByteCache = responseByteCache;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !HttpMethod.GET.matches(request.getMethod())
+                || !request.getRequestURI().startsWith(PATH_PREFIX)
+                || request.getRequestURI().startsWith(PATH_PREFIX + "upload/") // Job-Status hängt nicht an der Report-Version
+                || request.getRequestURI().equals(PATH_PREFIX + "versions") // Verlauf ändert sich auch ohne neue aktive Version
+                || request.getRequestURI().endsWith("/stream")
+                || request.getRequestURI().endsWith("/events");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String workspaceId;
+        try {
+            workspaceId = workspaceResolver.resolve(request);
+        } catch (InvalidQueryException e) {
+            // die Fehlerantwort erzeugt der Controller
+            chain.doFilter(request, response);
+            return;
+        }
+        Report report = fileImporter.getUploadedReport(workspaceId);
+        if (report == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        long version = report.getVersion();
+        String key = cacheKey(request);
+        ResponseByteCache.CachedResponse cached = responseByteCache.get(version, key);
+        if (cached != null) {
+            writeCached(request, response, version, key, cached);
+            return;
+        }
+
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        chain.doFilter(request, wrapper);
+
+        if (isCacheable(request, wrapper) && responseByteCache.fits(wrapper.getContentSize())
+                && isCurrentVersion(workspaceId, version)) {
+            byte[] body = wrapper.getContentAsByteArray();
+            responseByteCache.put(version, key, new ResponseByteCache.CachedResponse(headersOf(wrapper), body, null));
+        }
+        wrapper.copyBodyToResponse();
+    }
+
+    private void writeCached(HttpServletRequest request, HttpServletResponse response, long version, String key,
+                             ResponseByteCache.CachedResponse cached) throws IOException {
+        cached.headers().forEach((name, values) -> values.forEach(value -> response.addHeader(name, value)));
+        boolean compressible = cached.body().length >= GZIP_MIN_BYTES;
+        if (compressible) {
+            response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        }
+
+        List<String> eTag = cached.headers().get(HttpHeaders.ETAG);
+        if (eTag != null && !eTag.isEmpty()
+                && new ServletWebRequest(request, response).checkNotModified(eTag.get(0))) {
+            return;
+        }
+
+        byte[] body = cached.body();
+        if (compressible && acceptsGzip(request)) {
+            if (cached.gzipBody() == null) {
+                cached = new ResponseByteCache.CachedResponse(cached.headers(), cached.body(), compress(cached.body()));
+                responseByteCache.replace(version, key, cached);
+            }
+            body = cached.gzipBody();
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    private boolean isCacheable(HttpServletRequest request, ContentCachingResponseWrapper response) {
+        if (request.isAsyncStarted() || response.getStatus() != HttpServletResponse.SC_OK
+                || response.getContentType() == null || response.containsHeader(HttpHeaders.SET_COOKIE)) {
+            return false;
+        }
+        MediaType contentType = MediaType.parseMediaType(response.getContentType());
+        return MediaType.APPLICATION_JSON.isCompatibleWith(contentType)
+                || "x-jackson-smile".equals(contentType.getSubtype());
+    }
+
+    private boolean isCurrentVersion(String workspaceId, long version) {
+        Report current = fileImporter.getUploadedReport(workspaceId);
+        return current != null && current.getVersion() == version;
+    }
+
+    private static String cacheKey(HttpServletRequest request) {
+        return request.getRequestURI()
+                + '?' + nullToEmpty(request.getQueryString())
+                + '|' + nullToEmpty(request.getHeader(HttpHeaders.ACCEPT))
+                + '|' + nullToEmpty(request.getHeader(HttpHeaders.ORIGIN));
+    }
+
+    private static Map<String, List<String>> headersOf(HttpServletResponse response) {
+        Map<String, List<String>> headers = new LinkedHashMap<>();
+        for (String name : response.getHeaderNames()) {
+            if (!SKIPPED_HEADERS.contains(name.toLowerCase()) && !headers.containsKey(name)) {
+                headers.put(name, new ArrayList<>(response.getHeaders(name)));
+            }
+        }
+        if (response.getContentType() != null) {
+            headers.put(HttpHeaders.CONTENT_TYPE, List.of(response.getContentType()));
+        }
+        return headers;
+    }
+
+    private static byte[] compress(byte[] body) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(body.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(body);
+        }
+        return out.toByteArray();
+    }
+
+    private static boolean acceptsGzip(HttpServletRequest request) {
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        return acceptEncoding != null && acceptEncoding.contains("gzip");
+    }
+
+    private static String nullToEmpty(String value) {
+        return value != null ? value : "";
+    }
+}
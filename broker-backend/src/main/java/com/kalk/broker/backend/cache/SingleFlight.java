@@ -0,0 +1,69 @@
+package com.kalk.broker.backend.cache;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import com.kalk.broker.backend.pojo.Report;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bündelt gleichzeitige, identische Berechnungen: Rufen mehrere Threads dieselbe Operation
+ * (Report-Version, Name inkl. Parameter) auf, während sie noch läuft, rechnet nur der erste,
+ * die übrigen warten auf sein Ergebnis bzw. seine Exception. Nach Abschluss wird nichts
+ * aufbewahrt; dafür ist der {@link ReportCache} zuständig.
+ */
+@Component
+public class SingleFlight {
+
+    private final Map<FlightKey, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Führt die Berechnung aus oder schließt sich einer laufenden identischen Berechnung an.
+     * Die Berechnung darf nicht rekursiv auf dieselbe Operation zugreifen.
+     *
+     * @param report der Report, auf dem die Operation läuft
+     * @param operation Name der Operation, inkl. aller Parameter
+     * @param supplier die Berechnung (darf {@code null} liefern)
+     * @return das Ergebnis der eigenen oder der laufenden Berechnung
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(Report report, String operation, Supplier<T> supplier) {
+        FlightKey key = new FlightKey(report.getVersion(), operation);
+        CompletableFuture<Object> flight = new CompletableFuture<>();
+        CompletableFuture<Object> running = inFlight.putIfAbsent(key, flight);
+        if (running != null) {
+            return (T) await(running);
+        }
+
+        try {
+            T value = supplier.get();
+            flight.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    private static Object await(CompletableFuture<Object> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+
+    private record FlightKey(long version, String operation) {
+    }
+}
@@ -21,6 +21,25 @@ public final class AppConstants {
         public static final String INVALID_FILE_TYPE = "Nur CSV-Dateien sind erlaubt";
         public static final String PARSING_ERROR = "Fehler beim Parsen der Datei";
         public static final String PROCESSING_ERROR = "Fehler beim Verarbeiten der Datei: ";
+        public static final String INVALID_CURSOR = "Ungültiger Cursor";
+        public static final String STALE_CURSOR = "Der Cursor gehört zu einem älteren Report, bitte neu laden";
+        public static final String INVALID_SORT = "Unbekanntes Sortierfeld: ";
+        public static final String INVALID_FILTER = "Ungültiger Filter: ";
+        public static final String INVALID_VIEW = "Unbekannte Ansicht: ";
+        public static final String UPLOAD_QUEUE_FULL = "Zu viele Uploads in Bearbeitung, bitte später erneut versuchen";
+        public static final String INGEST_BUDGET_EXCEEDED = "Upload-Kapazität ausgeschöpft, bitte später erneut versuchen";
+        public static final String INVALID_WORKSPACE = "Ungültiger Arbeitsbereich: ";
+        public static final String PRECOMPUTE_FAILED = "Vorberechnung fehlgeschlagen: ";
+    }
+
+    // Pagination
+    public static final class Pagination {
+
+        private Pagination() {
+        }
+
+        public static final int DEFAULT_LIMIT = 100;
+        public static final int MAX_LIMIT = 1000;
     }
 
     // Success messages
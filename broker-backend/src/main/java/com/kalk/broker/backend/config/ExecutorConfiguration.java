@@ -0,0 +1,84 @@
+package com.kalk.broker.backend.config;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+
+/**
+ * Konfiguration der Executor für die nebenläufige Berechnung abgeleiteter Report-Daten
+ */
+@Configuration
+public class ExecutorConfiguration {
+
+    public static final String REPORT_STAGE_EXECUTOR = "reportStageExecutor";
+    public static final String REPORT_VIEW_EXECUTOR = "reportViewExecutor";
+    public static final String REPORT_INGEST_EXECUTOR = "reportIngestExecutor";
+    public static final String REPORT_WARMUP_EXECUTOR = "reportWarmupExecutor";
+
+    @Bean(name = REPORT_STAGE_EXECUTOR, destroyMethod = "shutdown")
+    public ExecutorService reportStageExecutor(@Value("${broker.executor.stage-threads:0}") int threads) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        return Executors.newFixedThreadPool(poolSize, namedDaemonThreads("report-stage-"));
+    }
+
+    /**
+     * Executor für die Ansichten des Dashboard-Endpunkts; getrennt vom Stage-Executor,
+     * weil Ansichten auf Stage-Ergebnisse warten
+     */
+    @Bean(name = REPORT_VIEW_EXECUTOR, destroyMethod = "shutdown")
+    public ExecutorService reportViewExecutor(@Value("${broker.executor.view-threads:0}") int threads) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        return Executors.newFixedThreadPool(poolSize, namedDaemonThreads("report-view-"));
+    }
+
+    /**
+     * Executor für das Parsen hochgeladener Dateien mit begrenzter Warteschlange;
+     * ist sie voll, wird der Upload abgelehnt statt Speicher für wartende Dateien zu belegen.
+     * Im Profil {@code virtual-threads} (Java 21) laufen die Parser auf virtuellen Threads,
+     * die Begrenzung durch Threadzahl und Warteschlange bleibt erhalten.
+     */
+    @Bean(name = REPORT_INGEST_EXECUTOR, destroyMethod = "shutdown")
+    public ThreadPoolExecutor reportIngestExecutor(@Value("${broker.ingest.threads:1}") int threads,
+                                                   @Value("${broker.ingest.queue-capacity:4}") int queueCapacity,
+                                                   Environment environment) {
+        ThreadFactory threadFactory = Threading.VIRTUAL.isActive(environment)
+                ? new VirtualThreadTaskExecutor("report-ingest-").getVirtualThreadFactory()
+                : namedDaemonThreads("report-ingest-");
+        return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), threadFactory, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Executor für die Vorberechnung nach einem Upload; eigene, niedrig priorisierte Threads,
+     * damit die Vorberechnung keine Dashboard-Ansichten blockiert
+     */
+    @Bean(name = REPORT_WARMUP_EXECUTOR, destroyMethod = "shutdown")
+    public ExecutorService reportWarmupExecutor(@Value("${broker.executor.warmup-threads:1}") int threads) {
+        return Executors.newFixedThreadPool(Math.max(1, threads), namedDaemonThreads("report-warmup-", Thread.MIN_PRIORITY));
+    }
+
+    private static ThreadFactory namedDaemonThreads(String prefix) {
+        return namedDaemonThreads(prefix, Thread.NORM_PRIORITY);
+    }
+
+    private static ThreadFactory namedDaemonThreads(String prefix, int priority) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            thread.setPriority(priority);
+            return thread;
+        };
+    }
+}
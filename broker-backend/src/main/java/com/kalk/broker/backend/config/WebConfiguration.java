@@ -0,0 +1,50 @@
+package com.kalk.broker.backend.config;
+
+import com.kalk.broker.backend.controller.ReportETagInterceptor;
+import org.apache.coyote.AbstractProtocol;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Web-MVC-Konfiguration der Report-Endpunkte
+ */
+@Configuration
+public class WebConfiguration implements WebMvcConfigurer {
+
+    private final ReportETagInterceptor reportETagInterceptor;
+
+    public WebConfiguration(ReportETagInterceptor reportETagInterceptor) {
+        this.reportETagInterceptor = reportETagInterceptor;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(reportETagInterceptor).addPathPatterns("/api/reports/**")
+                .excludePathPatterns("/api/reports/events", "/api/reports/upload/**", "/api/reports/versions");
+    }
+
+    /**
+     * Verbindungsgrenzen für Requests auf virtuellen Threads: die Grenze ist dann die Zahl der Verbindungen,
+     * nicht die der Worker-Threads. Greift nur, wenn virtuelle Threads tatsächlich aktiv sind (Java 21),
+     * auf älteren Laufzeiten bleiben die Tomcat-Standardwerte.
+     */
+    @Bean
+    @ConditionalOnThreading(Threading.VIRTUAL)
+    public WebServerFactoryCustomizer<TomcatServletWebServerFactory> virtualThreadConnectionLimits(
+            @Value("${broker.virtual-threads.max-connections:10000}") int maxConnections,
+            @Value("${broker.virtual-threads.accept-count:1000}") int acceptCount) {
+        return factory -> factory.addConnectorCustomizers(connector -> {
+            if (connector.getProtocolHandler() instanceof AbstractProtocol<?> protocol) {
+                protocol.setMaxConnections(maxConnections);
+                protocol.setAcceptCount(acceptCount);
+            }
+        });
+    }
+}
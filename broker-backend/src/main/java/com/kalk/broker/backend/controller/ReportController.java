@@ -2,24 +2,51 @@ package com.kalk.broker.backend.controller;
 
 import com.kalk.broker.backend.config.AppConstants;
 import com.kalk.broker.backend.csv.FileImporter;
+import com.kalk.broker.backend.events.ReportEventBroadcaster;
+import com.kalk.broker.backend.events.ReportVersionEvent;
 import com.kalk.broker.backend.exception.FileProcessingException;
+import com.kalk.broker.backend.exception.InvalidQueryException;
+import com.kalk.broker.backend.json.CompactPage;
+import com.kalk.broker.backend.json.CompactSection;
+import com.kalk.broker.backend.json.FieldProjection;
+import com.kalk.broker.backend.json.FieldProjectionAdvice;
+import com.kalk.broker.backend.json.SectionJsonWriter;
 import com.kalk.broker.backend.pojo.*;
+import com.kalk.broker.backend.service.DashboardService;
+import com.kalk.broker.backend.service.HoldingsHistoryService;
+import com.kalk.broker.backend.service.IngestLimiter;
+import com.kalk.broker.backend.service.PositionLedgerService;
 import com.kalk.broker.backend.service.TaxDataService;
 import com.kalk.broker.backend.service.PortfolioDataService;
+import com.kalk.broker.backend.service.SectionDataService;
 import com.kalk.broker.backend.service.TransactionDataService;
+import com.kalk.broker.backend.service.UploadJobService;
+import com.kalk.broker.backend.workspace.WorkspaceResolver;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.io.IOException;
 import java.math.BigDecimal;
+import java.net.URI;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
 
 @RestController
 @RequestMapping("/api/reports")
@@ -32,46 +59,72 @@ public class ReportController {
     private final TaxDataService taxRelevantDataService;
     private final PortfolioDataService portfolioDataService;
     private final TransactionDataService transactionDataService;
-
-    private String currentFileName = AppConstants.DEFAULT_FILE_NAME;
+    private final HoldingsHistoryService holdingsHistoryService;
+    private final PositionLedgerService positionLedgerService;
+    private final SectionDataService sectionDataService;
+    private final SectionJsonWriter sectionJsonWriter;
+    private final DashboardService dashboardService;
+    private final ReportEventBroadcaster eventBroadcaster;
+    private final UploadJobService uploadJobService;
+    private final WorkspaceResolver workspaceResolver;
 
     @Autowired
     public ReportController(FileImporter fileImporter, TaxDataService taxRelevantDataService,
-                          PortfolioDataService portfolioDataService, TransactionDataService transactionDataService) {
+                          PortfolioDataService portfolioDataService, TransactionDataService transactionDataService,
+                          HoldingsHistoryService holdingsHistoryService, PositionLedgerService positionLedgerService,
+                          SectionDataService sectionDataService, SectionJsonWriter sectionJsonWriter,
+                          DashboardService dashboardService, ReportEventBroadcaster eventBroadcaster,
+                          UploadJobService uploadJobService, WorkspaceResolver workspaceResolver) {
         this.fileImporter = fileImporter;
         this.taxRelevantDataService = taxRelevantDataService;
         this.portfolioDataService = portfolioDataService;
         this.transactionDataService = transactionDataService;
+        this.holdingsHistoryService = holdingsHistoryService;
+        this.positionLedgerService = positionLedgerService;
+        this.sectionDataService = sectionDataService;
+        this.sectionJsonWriter = sectionJsonWriter;
+        this.dashboardService = dashboardService;
+        this.eventBroadcaster = eventBroadcaster;
+        this.uploadJobService = uploadJobService;
+        this.workspaceResolver = workspaceResolver;
     }
 
+    /**
+     * Nimmt einen Upload an und verarbeitet ihn im Hintergrund (202 mit Job-Status).
+     * Der Fortschritt ist über {@code /upload/jobs/{jobId}} oder die Server-Sent Events abrufbar.
+     * Ist die Ingest-Kapazität erschöpft, wird sofort mit 429 bzw. 503 abgelehnt.
+     */
     @PostMapping("/upload")
-    public ResponseEntity<UploadResponse> uploadFile(@RequestParam("file") MultipartFile file) {
+    public ResponseEntity<UploadJob> uploadFile(@RequestParam("file") MultipartFile file,
+            @RequestAttribute(name = UploadAdmissionFilter.RESERVATION_ATTRIBUTE, required = false)
+            IngestLimiter.Reservation reservation) {
         logger.info("Received file upload request: {}", file.getOriginalFilename());
 
         validateFile(file);
 
         try {
-            Report report = fileImporter.parseUploadedFile(file);
-            if (report == null) {
-                throw new FileProcessingException(AppConstants.ErrorMessages.PARSING_ERROR);
-            }
-
-            currentFileName = file.getOriginalFilename();
-
-            UploadResponse response = createSuccessUploadResponse(report);
-            logger.info("File uploaded successfully: {} with {} sections", currentFileName, report.getSections().size());
-
-            return ResponseEntity.ok(response);
+            UploadJob job = uploadJobService.submit(file, workspaceResolver.currentWorkspace(), reservation);
+            logger.info("Upload job {} queued for {}", job.getId(), job.getFileName());
+            return ResponseEntity.accepted()
+                .location(URI.create("/api/reports/upload/jobs/" + job.getId()))
+                .body(job);
 
         } catch (IOException e) {
-            logger.error("Error processing file: {}", e.getMessage());
+            logger.error("Error storing uploaded file: {}", e.getMessage());
             throw new FileProcessingException(AppConstants.ErrorMessages.PROCESSING_ERROR + e.getMessage(), e);
         }
     }
 
+    @GetMapping("/upload/jobs/{jobId}")
+    public ResponseEntity<UploadJob> getUploadJob(@PathVariable(name = "jobId") String jobId) {
+        return uploadJobService.getJob(jobId, workspaceResolver.currentWorkspace())
+            .map(job -> ResponseEntity.ok().cacheControl(CacheControl.noStore()).body(job))
+            .orElse(ResponseEntity.notFound().build());
+    }
+
     @GetMapping("/current-file")
     public ResponseEntity<String> getCurrentFileName() {
-        return ResponseEntity.ok(currentFileName);
+        return ResponseEntity.ok(getCurrentFileNameOrDefault());
     }
 
     @GetMapping("/has-uploaded-file")
@@ -79,39 +132,158 @@ public class ReportController {
         return ResponseEntity.ok(fileImporter.hasUploadedFile());
     }
 
+    /**
+     * Server-Sent Events zu Upload-Fortschritt, neuen Report-Versionen und fertig berechneten Daten.
+     * Das erste Ereignis ist der aktuelle Report-Stand, Clients müssen daher nicht pollen.
+     * EventSource kann keine Header setzen, der Arbeitsbereich kommt daher als Parameter {@code workspace}.
+     */
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribeToEvents() {
+        String workspaceId = workspaceResolver.currentWorkspace();
+        Report report = fileImporter.getUploadedReport(workspaceId);
+        return eventBroadcaster.subscribe(workspaceId, report != null
+            ? new ReportVersionEvent(report.getVersion(), report.getFingerprint(), report.getFileName())
+            : ReportVersionEvent.NONE);
+    }
+
+    /**
+     * Die im Speicher gehaltenen Versionen des Arbeitsbereichs, die neueste zuerst
+     */
+    @GetMapping("/versions")
+    public ResponseEntity<List<ReportHistoryEntry>> getVersions() {
+        return ResponseEntity.ok().cacheControl(CacheControl.noStore()).body(fileImporter.getVersionHistory());
+    }
+
+    /**
+     * Schaltet auf eine gehaltene Version um; berechnete Daten dieser Version werden weiterverwendet
+     */
+    @PostMapping("/versions/{version}/activate")
+    public ResponseEntity<ReportHistoryEntry> activateVersion(@PathVariable(name = "version") long version) {
+        return fileImporter.activateVersion(version)
+            .map(ResponseEntity::ok)
+            .orElse(ResponseEntity.notFound().build());
+    }
+
     @DeleteMapping("/uploaded-file")
     public ResponseEntity<Void> clearUploadedFile() {
         fileImporter.clearUploadedFile();
-        currentFileName = AppConstants.DEFAULT_FILE_NAME;
-        logger.info("Uploaded file cleared, reset to default: {}", currentFileName);
+        logger.info("Uploaded file cleared, reset to default: {}", AppConstants.DEFAULT_FILE_NAME);
         return ResponseEntity.ok().build();
     }
 
+    /**
+     * Gibt alle Sektionen zurück; mit {@code format=compact} die Zeilen als Werte-Arrays
+     */
     @GetMapping("/sections")
-    public ResponseEntity<Map<String, SectionData>> getAllSections() {
+    public ResponseEntity<Object> getAllSections(
+            @RequestParam(name = "format", required = false) String format,
+            @RequestParam(name = FieldProjectionAdvice.FIELDS_PARAMETER, required = false) String fields) {
         if (!fileImporter.hasUploadedFile()) {
             return ResponseEntity.noContent().build();
         }
 
         return getCurrentReportSafely()
-            .map(report -> ResponseEntity.ok(report.getSections()))
+            .map(report -> {
+                if (!isCompact(format)) {
+                    return ResponseEntity.<Object>ok(report.getSections());
+                }
+                return ResponseEntity.<Object>ok(createCompactSections(report, FieldProjection.parseFields(fields)));
+            })
+            .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Gibt alle Sektionen gestreamt zurück (gleiches JSON wie {@code /sections})
+     */
+    @GetMapping("/sections/stream")
+    public ResponseEntity<StreamingResponseBody> streamAllSections(
+            @RequestParam(name = "format", required = false) String format,
+            @RequestParam(name = FieldProjectionAdvice.FIELDS_PARAMETER, required = false) String fields) {
+        if (!fileImporter.hasUploadedFile()) {
+            return ResponseEntity.noContent().build();
+        }
+
+        Set<String> columns = FieldProjection.parseFields(fields);
+        boolean compact = isCompact(format);
+        return getCurrentReportSafely()
+            .map(report -> ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body((StreamingResponseBody) out -> sectionJsonWriter.writeSections(report.getSections(), columns, compact, out)))
+            .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Gibt die Zeilen einer Sektion gestreamt zurück: als JSON-Array oder,
+     * bei {@code Accept: application/x-ndjson}, als eine JSON-Zeile pro Datenzeile.
+     * Mit {@code format=compact} werden die Spaltennamen einmal und die Zeilen als Werte-Arrays geschrieben.
+     */
+    @GetMapping("/sections/{sectionName}/data/stream")
+    public ResponseEntity<StreamingResponseBody> streamSectionData(
+            @PathVariable("sectionName") String sectionName,
+            @RequestHeader(name = HttpHeaders.ACCEPT, required = false) String accept,
+            @RequestParam(name = "format", required = false) String format,
+            @RequestParam(name = FieldProjectionAdvice.FIELDS_PARAMETER, required = false) String fields) {
+        if (!fileImporter.hasUploadedFile()) {
+            return ResponseEntity.notFound().build();
+        }
+
+        Set<String> columns = FieldProjection.parseFields(fields);
+        boolean ndjson = accept != null && accept.contains(SectionJsonWriter.APPLICATION_NDJSON);
+        boolean compact = isCompact(format);
+        return getCurrentReportSafely()
+            .filter(report -> report.hasSection(sectionName))
+            .map(report -> {
+                SectionData section = report.getSection(sectionName);
+                List<Map<String, String>> rows = section.getDataRows();
+                StreamingResponseBody body;
+                if (compact) {
+                    body = ndjson
+                        ? out -> sectionJsonWriter.writeCompactRowsAsNdjson(section, rows, columns, out)
+                        : out -> sectionJsonWriter.writeCompactRows(section, rows, columns, out);
+                } else {
+                    body = ndjson
+                        ? out -> sectionJsonWriter.writeRowsAsNdjson(rows, columns, out)
+                        : out -> sectionJsonWriter.writeRows(rows, columns, out);
+                }
+                return ResponseEntity.ok()
+                    .contentType(ndjson ? MediaType.parseMediaType(SectionJsonWriter.APPLICATION_NDJSON) : MediaType.APPLICATION_JSON)
+                    .body(body);
+            })
             .orElse(ResponseEntity.notFound().build());
     }
 
     @GetMapping("/sections/{sectionName}")
-    public ResponseEntity<SectionData> getSection(@PathVariable String sectionName) {
+    public ResponseEntity<Object> getSection(
+            @PathVariable("sectionName") String sectionName,
+            @RequestParam(name = "format", required = false) String format,
+            @RequestParam(name = FieldProjectionAdvice.FIELDS_PARAMETER, required = false) String fields) {
         if (!fileImporter.hasUploadedFile()) {
             return ResponseEntity.notFound().build();
         }
 
         return getCurrentReportSafely()
             .filter(report -> report.hasSection(sectionName))
-            .map(report -> ResponseEntity.ok(report.getSection(sectionName)))
+            .map(report -> {
+                SectionData section = report.getSection(sectionName);
+                Object body = isCompact(format) ? new CompactSection(section, FieldProjection.parseFields(fields)) : section;
+                return ResponseEntity.ok(body);
+            })
             .orElse(ResponseEntity.notFound().build());
     }
 
+    /**
+     * Gibt die Zeilen einer Sektion seitenweise zurück, optional gefiltert ({@code filter=Spalte=Wert})
+     * und sortiert ({@code sort=Spalte} bzw. {@code sort=-Spalte}); mit {@code format=compact} als Werte-Arrays
+     */
     @GetMapping("/sections/{sectionName}/data")
-    public ResponseEntity<List<Map<String, String>>> getSectionData(@PathVariable String sectionName) {
+    public ResponseEntity<Object> getSectionData(
+            @PathVariable("sectionName") String sectionName,
+            @RequestParam(name = "filter", required = false) List<String> filter,
+            @RequestParam(name = "sort", required = false) String sort,
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "limit", required = false) Integer limit,
+            @RequestParam(name = "format", required = false) String format,
+            @RequestParam(name = FieldProjectionAdvice.FIELDS_PARAMETER, required = false) String fields) {
         if (!fileImporter.hasUploadedFile()) {
             return ResponseEntity.notFound().build();
         }
@@ -119,8 +291,11 @@ public class ReportController {
         return getCurrentReportSafely()
             .filter(report -> report.hasSection(sectionName))
             .map(report -> {
-                SectionData section = report.getSection(sectionName);
-                return ResponseEntity.ok(section.getDataRows());
+                Page<Map<String, String>> page = sectionDataService.getSectionPage(report, sectionName, filter, sort, cursor, limit);
+                Object body = isCompact(format)
+                    ? new CompactPage(report.getSection(sectionName), page, FieldProjection.parseFields(fields))
+                    : page;
+                return ResponseEntity.ok(body);
             })
             .orElse(ResponseEntity.notFound().build());
     }
@@ -137,6 +312,37 @@ public class ReportController {
             .orElse(ResponseEntity.notFound().build());
     }
 
+    // === DASHBOARD ENDPOINT ===
+
+    /**
+     * Liefert mehrere Ansichten in einer Antwort, z.B. {@code views=summary,sections} für die Startseite.
+     * Gemeinsame Eingaben werden einmal berechnet, unabhängige Ansichten nebenläufig.
+     * Die Namen der Ansichten entsprechen den Pfaden der Einzel-Endpunkte (siehe {@link #createDashboardViews}).
+     */
+    @GetMapping("/dashboard")
+    public ResponseEntity<Dashboard> getDashboard(
+            @RequestParam(name = "views") List<String> views,
+            @RequestParam(name = "taxYear", defaultValue = "2024") int taxYear,
+            @RequestParam(name = "format", required = false) String format) {
+        if (!fileImporter.hasUploadedFile()) {
+            return ResponseEntity.ok(new Dashboard(false, 0));
+        }
+
+        Map<String, Function<DashboardService.Inputs, ?>> available = createDashboardViews(taxYear, format);
+        Map<String, Function<DashboardService.Inputs, ?>> requested = new LinkedHashMap<>();
+        for (String view : views) {
+            Function<DashboardService.Inputs, ?> function = available.get(view.trim());
+            if (function == null) {
+                throw new InvalidQueryException(AppConstants.ErrorMessages.INVALID_VIEW + view);
+            }
+            requested.put(view.trim(), function);
+        }
+
+        return getCurrentReportSafely()
+            .map(report -> ResponseEntity.ok(dashboardService.compose(report, requested)))
+            .orElse(ResponseEntity.notFound().build());
+    }
+
     // === TAX RELEVANT DATA ENDPOINTS ===
 
     @GetMapping("/tax-data")
@@ -275,10 +481,7 @@ public class ReportController {
 
         return getCurrentReportSafely()
             .map(report -> {
-                Portfolio portfolio = portfolioDataService.createPortfolio(report);
-                return portfolio.getPositions().stream()
-                    .filter(pos -> symbol.equals(pos.getSymbol()))
-                    .findFirst()
+                return portfolioDataService.getPosition(report, symbol)
                     .map(ResponseEntity::ok)
                     .orElse(ResponseEntity.notFound().build());
             })
@@ -296,10 +499,7 @@ public class ReportController {
 
         return getCurrentReportSafely()
             .map(report -> {
-                Portfolio portfolio = portfolioDataService.createPortfolio(report);
-                return portfolio.getPositions().stream()
-                    .filter(pos -> symbol.equals(pos.getSymbol()))
-                    .findFirst()
+                return portfolioDataService.getPosition(report, symbol)
                     .map(pos -> ResponseEntity.ok(pos.getTransactions()))
                     .orElse(ResponseEntity.notFound().build());
             })
@@ -317,10 +517,7 @@ public class ReportController {
 
         return getCurrentReportSafely()
             .map(report -> {
-                Portfolio portfolio = portfolioDataService.createPortfolio(report);
-                return portfolio.getPositions().stream()
-                    .filter(pos -> symbol.equals(pos.getSymbol()))
-                    .findFirst()
+                return portfolioDataService.getPosition(report, symbol)
                     .map(pos -> ResponseEntity.ok(pos.getDividends()))
                     .orElse(ResponseEntity.notFound().build());
             })
@@ -345,6 +542,79 @@ public class ReportController {
             .orElse(ResponseEntity.notFound().build());
     }
 
+    /**
+     * Gibt die Portfolio-Summen je Währung, Vermögenswertkategorie und gesamt zurück
+     */
+    @GetMapping("/portfolio/aggregates")
+    public ResponseEntity<PortfolioAggregates> getPortfolioAggregates(
+            @RequestParam(name = "convertToBaseCurrency", defaultValue = "true") boolean convertToBaseCurrency) {
+
+        if (!fileImporter.hasUploadedFile()) {
+            return ResponseEntity.noContent().build();
+        }
+
+        return getCurrentReportSafely()
+            .map(report -> {
+                PortfolioAggregates aggregates = portfolioDataService.createAggregates(report, convertToBaseCurrency);
+                return ResponseEntity.ok(aggregates);
+            })
+            .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Gibt die tägliche Bestandshistorie (Menge und Kostenbasis je Position) zurück,
+     * optional eingeschränkt auf einen Datumsbereich
+     */
+    @GetMapping("/portfolio/history")
+    public ResponseEntity<HoldingsHistory> getHoldingsHistory(
+            @RequestParam(name = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(name = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+
+        if (!fileImporter.hasUploadedFile()) {
+            return ResponseEntity.noContent().build();
+        }
+
+        return getCurrentReportSafely()
+            .map(report -> {
+                HoldingsHistory history = holdingsHistoryService.getHoldingsHistory(report, from, to);
+                return ResponseEntity.ok(history);
+            })
+            .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Gibt das Portfolio zum Ende eines Stichtags zurück (aus dem Positions-Ledger)
+     */
+    @GetMapping("/portfolio/as-of")
+    public ResponseEntity<Portfolio> getPortfolioAsOf(
+            @RequestParam(name = "date") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+
+        if (!fileImporter.hasUploadedFile()) {
+            return ResponseEntity.noContent().build();
+        }
+
+        return getCurrentReportSafely()
+            .map(report -> {
+                Portfolio portfolio = positionLedgerService.getPortfolioAsOf(report, date);
+                return ResponseEntity.ok(portfolio);
+            })
+            .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Gibt alle positionsverändernden Ereignisse (Ausführungen, Dividenden, Verfälle) chronologisch zurück
+     */
+    @GetMapping("/portfolio/ledger")
+    public ResponseEntity<List<LedgerEvent>> getLedgerEvents() {
+        if (!fileImporter.hasUploadedFile()) {
+            return ResponseEntity.noContent().build();
+        }
+
+        return getCurrentReportSafely()
+            .map(report -> ResponseEntity.ok(positionLedgerService.getEvents(report)))
+            .orElse(ResponseEntity.notFound().build());
+    }
+
     // === TRANSACTION DATA ENDPOINTS ===
 
     /**
@@ -399,19 +669,34 @@ public class ReportController {
     }
 
     /**
-     * Gibt alle einzelnen Transaktionen zurück
+     * Gibt die einzelnen Transaktionen seitenweise zurück, optional gefiltert und sortiert.
+     * Der Zeitraum {@code from}..{@code to} ist inklusive beider Tage.
      */
     @GetMapping("/transactions/all")
-    public ResponseEntity<List<Transaction>> getAllIndividualTransactions() {
+    public ResponseEntity<Page<Transaction>> getAllIndividualTransactions(
+            @RequestParam(name = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(name = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(name = "symbol", required = false) String symbol,
+            @RequestParam(name = "currency", required = false) String currency,
+            @RequestParam(name = "assetCategory", required = false) String assetCategory,
+            @RequestParam(name = "code", required = false) String code,
+            @RequestParam(name = "sort", required = false) String sort,
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "limit", required = false) Integer limit) {
         if (!fileImporter.hasUploadedFile()) {
             return ResponseEntity.noContent().build();
         }
 
+        TransactionFilter filter = new TransactionFilter(from != null ? from.atStartOfDay() : null,
+            to != null ? to.plusDays(1).atStartOfDay() : null);
+        filter.setSymbol(symbol);
+        filter.setCurrency(currency);
+        filter.setAssetCategory(assetCategory);
+        filter.setCode(code);
+
         return getCurrentReportSafely()
-            .map(report -> {
-                List<Transaction> transactions = transactionDataService.extractAllTransactions(report);
-                return ResponseEntity.ok(transactions);
-            })
+            .map(report -> ResponseEntity.ok(
+                transactionDataService.getTransactionPage(report, filter, sort, cursor, limit)))
             .orElse(ResponseEntity.notFound().build());
     }
 
@@ -468,6 +753,35 @@ public class ReportController {
 
     // === PRIVATE HELPER METHODS ===
 
+    private static boolean isCompact(String format) {
+        return SectionJsonWriter.FORMAT_COMPACT.equalsIgnoreCase(format);
+    }
+
+    private Map<String, CompactSection> createCompactSections(Report report, Set<String> columns) {
+        Map<String, CompactSection> sections = new LinkedHashMap<>();
+        report.getSections().forEach((name, section) -> sections.put(name, new CompactSection(section, columns)));
+        return sections;
+    }
+
+    /**
+     * Verfügbare Ansichten des Dashboard-Endpunkts
+     */
+    private Map<String, Function<DashboardService.Inputs, ?>> createDashboardViews(int taxYear, String format) {
+        Map<String, Function<DashboardService.Inputs, ?>> views = new HashMap<>();
+        views.put("summary", inputs -> createReportSummary(inputs.getReport()));
+        views.put("sections", inputs -> isCompact(format)
+            ? createCompactSections(inputs.getReport(), Set.of())
+            : inputs.getReport().getSections());
+        views.put("portfolio", DashboardService.Inputs::portfolio);
+        views.put("portfolio/summary", inputs -> createPortfolioSummary(inputs.portfolio()));
+        views.put("transactions", DashboardService.Inputs::transactions);
+        views.put("transactions/by-asset-key", inputs -> transactionDataService.getTransactionsByAssetKey(inputs.transactions()));
+        views.put("transactions/by-symbol", inputs -> transactionDataService.getTransactionsBySymbol(inputs.transactions()));
+        views.put("transactions/summary", inputs -> transactionDataService.getTransactionSummary(inputs.transactions()));
+        views.put("tax-data", inputs -> inputs.taxData(taxYear));
+        return views;
+    }
+
     private void validateFile(MultipartFile file) {
         if (file.isEmpty()) {
             throw new FileProcessingException(AppConstants.ErrorMessages.FILE_EMPTY);
@@ -479,12 +793,9 @@ public class ReportController {
         }
     }
 
-    private UploadResponse createSuccessUploadResponse(Report report) {
-        UploadResponse response = new UploadResponse(true, AppConstants.SuccessMessages.FILE_UPLOADED);
-        response.setSectionCount(report.getSections().size());
-        response.setSectionNames(report.getSections().keySet().stream().toList());
-        response.setFileName(currentFileName);
-        return response;
+    private String getCurrentFileNameOrDefault() {
+        Report report = fileImporter.getUploadedReport();
+        return report != null && report.getFileName() != null ? report.getFileName() : AppConstants.DEFAULT_FILE_NAME;
     }
 
     private Optional<Report> getCurrentReportSafely() {
@@ -509,7 +820,7 @@ public class ReportController {
         ReportSummary summary = new ReportSummary();
         summary.setSectionCount(report.getSections().size());
         summary.setSectionNames(report.getSections().keySet().stream().toList());
-        summary.setCurrentFileName(currentFileName);
+        summary.setCurrentFileName(report.getFileName());
 
         int totalDataRows = report.getSections().values().stream()
             .mapToInt(section -> section.getDataRows().size())
@@ -533,10 +844,9 @@ public class ReportController {
     }
 
     private Report getCurrentReport() throws IOException {
-        if (fileImporter.hasUploadedFile()) {
-            return fileImporter.getUploadedReport();
-        }
-        return new Report();
+        // einmal lesen: der Snapshot kann zwischen zwei Zugriffen ersetzt werden
+        Report report = fileImporter.getUploadedReport();
+        return report != null ? report : new Report();
     }
 
     // DTO für Report Summary
@@ -560,36 +870,6 @@ public class ReportController {
         public void setCurrentFileName(String currentFileName) { this.currentFileName = currentFileName; }
     }
 
-    // DTO für Upload Response
-    public static class UploadResponse {
-        private boolean success;
-        private String message;
-        private int sectionCount;
-        private List<String> sectionNames;
-        private String fileName;
-
-        public UploadResponse(boolean success, String message) {
-            this.success = success;
-            this.message = message;
-        }
-
-        // Getters and Setters
-        public boolean isSuccess() { return success; }
-        public void setSuccess(boolean success) { this.success = success; }
-
-        public String getMessage() { return message; }
-        public void setMessage(String message) { this.message = message; }
-
-        public int getSectionCount() { return sectionCount; }
-        public void setSectionCount(int sectionCount) { this.sectionCount = sectionCount; }
-
-        public List<String> getSectionNames() { return sectionNames; }
-        public void setSectionNames(List<String> sectionNames) { this.sectionNames = sectionNames; }
-
-        public String getFileName() { return fileName; }
-        public void setFileName(String fileName) { this.fileName = fileName; }
-    }
-
     // DTO für Portfolio Summary
     public static class PortfolioSummary {
         private int totalPositions;
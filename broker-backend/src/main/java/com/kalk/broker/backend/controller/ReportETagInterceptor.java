@@ -0,0 +1,66 @@
+package com.kalk.broker.backend.controller;
+
+import com.kalk.broker.backend.csv.FileImporter;
+import com.kalk.broker.backend.pojo.Report;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Bedingte GET-Anfragen für die Report-Endpunkte.
+ * Alle lesenden Antworten hängen nur vom hochgeladenen Report ab, daher dient dessen Fingerabdruck
+ * (Version und Inhalts-Hash) als starkes ETag. Stimmt {@code If-None-Match} überein, wird direkt
+ * mit 304 geantwortet, ohne den Controller aufzurufen.
+ * <p>
+ * Akzeptiert der Client gzip, wird ein schwaches ETag gesendet: Tomcat komprimiert keine Antworten
+ * mit starkem ETag, da sich die Bytes je nach Kodierung unterscheiden.
+ */
+@Component
+public class ReportETagInterceptor implements HandlerInterceptor {
+
+    private final FileImporter fileImporter;
+
+    public ReportETagInterceptor(FileImporter fileImporter) {
+        this.fileImporter = fileImporter;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!HttpMethod.GET.matches(request.getMethod()) && !HttpMethod.HEAD.matches(request.getMethod())) {
+            return true;
+        }
+
+        Report report = fileImporter.getUploadedReport();
+        if (report == null || report.getFingerprint() == null) {
+            return true;
+        }
+
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "no-cache");
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        String eTag = eTag(report, request);
+        if (acceptsGzip(request)) {
+            eTag = "W/" + eTag;
+        }
+        return !new ServletWebRequest(request, response).checkNotModified(eTag);
+    }
+
+    private static boolean acceptsGzip(HttpServletRequest request) {
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        return acceptEncoding != null && acceptEncoding.contains("gzip");
+    }
+
+    /**
+     * ETag aus Fingerabdruck und, falls angegeben, dem gewünschten Medientyp (z.B. NDJSON)
+     */
+    static String eTag(Report report, HttpServletRequest request) {
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        if (accept == null || accept.isBlank() || "*/*".equals(accept)) {
+            return "\"" + report.getFingerprint() + "\"";
+        }
+        return "\"" + report.getFingerprint() + "-" + Integer.toHexString(accept.hashCode()) + "\"";
+    }
+}
@@ -0,0 +1,63 @@
+package com.kalk.broker.backend.controller;
+
+import java.io.IOException;
+
+import com.kalk.broker.backend.exception.UploadRejectedException;
+import com.kalk.broker.backend.service.IngestLimiter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+
+/**
+ * Prüft Uploads vor dem Lesen des Multipart-Bodys gegen das Ingest-Budget, damit abgelehnte
+ * Uploads weder Request-Threads noch Speicher belegen. Die Reservierung wird als Request-Attribut
+ * an den Upload-Job weitergereicht; wird sie nicht übernommen, gibt der Filter sie wieder frei.
+ */
+@Component
+public class UploadAdmissionFilter extends OncePerRequestFilter {
+
+    public static final String RESERVATION_ATTRIBUTE = "com.kalk.broker.backend.uploadReservation";
+
+    private static final String UPLOAD_PATH = "/api/reports/upload";
+
+    private final IngestLimiter ingestLimiter;
+    private final HandlerExceptionResolver exceptionResolver;
+
+    public UploadAdmissionFilter(IngestLimiter ingestLimiter,
+                                 @Qualifier("handlerExceptionResolver") HandlerExceptionResolver exceptionResolver) {
+        this.ingestLimiter = ingestLimiter;
+        this.exceptionResolver = exceptionResolver;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !HttpMethod.POST.matches(request.getMethod()) || !UPLOAD_PATH.equals(request.getRequestURI());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        IngestLimiter.Reservation reservation;
+        try {
+            reservation = ingestLimiter.reserve(request.getContentLengthLong());
+        } catch (UploadRejectedException e) {
+            exceptionResolver.resolveException(request, response, null, e);
+            return;
+        }
+
+        request.setAttribute(RESERVATION_ATTRIBUTE, reservation);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            if (!reservation.isHandedOver()) {
+                reservation.release();
+            }
+        }
+    }
+}
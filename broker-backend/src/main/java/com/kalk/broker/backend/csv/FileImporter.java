@@ -5,76 +5,177 @@ import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.Reader;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashSet;
+import java.util.HexFormat;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
+import com.kalk.broker.backend.events.ReportEventBroadcaster;
+import com.kalk.broker.backend.events.ReportVersionEvent;
+import com.kalk.broker.backend.events.UploadProgressEvent;
 import com.kalk.broker.backend.pojo.Report;
+import com.kalk.broker.backend.pojo.ReportHistoryEntry;
+import com.kalk.broker.backend.snapshot.ReportSnapshotStore;
+import com.kalk.broker.backend.workspace.ReportCompactor;
+import com.kalk.broker.backend.workspace.WorkspaceReportStore;
+import com.kalk.broker.backend.workspace.WorkspaceResolver;
 import org.apache.commons.csv.CSVFormat;
 import org.apache.commons.csv.CSVRecord;
 import org.apache.commons.io.input.BOMInputStream;
 import org.springframework.stereotype.Component;
-import org.springframework.web.multipart.MultipartFile;
 
 @Component
 public class FileImporter {
 
+    private static final int PROGRESS_INTERVAL_ROWS = 5000;
+
     private final Set<Parser> parser = new HashSet<>();
-    private Report uploadedReport; // Store uploaded file report
+    private final WorkspaceReportStore reportStore; // uploaded reports per workspace
+    private final ReportSnapshotStore snapshotStore;
+    private final ReportCompactor reportCompactor;
+    private final WorkspaceResolver workspaceResolver;
+    private final ReportEventBroadcaster eventBroadcaster;
+    private final AtomicLong versions; // global, damit Cache-Schlüssel nie zwischen Arbeitsbereichen kollidieren
 
-    public FileImporter(Collection<Parser> parser) {
+    public FileImporter(Collection<Parser> parser, WorkspaceReportStore reportStore, ReportSnapshotStore snapshotStore,
+                        ReportCompactor reportCompactor, WorkspaceResolver workspaceResolver, ReportEventBroadcaster eventBroadcaster) {
         if (parser != null) {
             this.parser.addAll(parser);
         }
+        this.reportStore = reportStore;
+        this.snapshotStore = snapshotStore;
+        this.reportCompactor = reportCompactor;
+        // wiederhergestellte Snapshots behalten ihre Version, neue Uploads zählen danach weiter
+        this.versions = new AtomicLong(reportStore.getHighestVersion());
+        this.workspaceResolver = workspaceResolver;
+        this.eventBroadcaster = eventBroadcaster;
     }
 
     /**
-     * Parse uploaded CSV file
+     * Parse uploaded CSV file (a copy of the multipart upload, the request may already be finished)
+     * and store it as the current report of the given workspace
      */
-    public Report parseUploadedFile(MultipartFile file) throws IOException {
+    public Report parseUploadedFile(Path file, String fileName, String workspaceId) throws IOException {
         CSVFormat format = CSVFormat.DEFAULT.builder()
                 .setSkipHeaderRecord(false)
                 .build();
 
-        try (InputStream stream = file.getInputStream();
+        MessageDigest digest = newDigest();
+        long totalBytes = Files.size(file);
+        try (ProgressInputStream progress = new ProgressInputStream(Files.newInputStream(file));
+                InputStream stream = new DigestInputStream(progress, digest);
                 BOMInputStream bomInputStream = BOMInputStream.builder().setInputStream(stream).get();
                 Reader reader = new InputStreamReader(bomInputStream, StandardCharsets.UTF_8)) {
 
-            List<CSVRecord> records = format.parse(reader).stream().toList();
+            List<CSVRecord> records = new ArrayList<>();
+            for (CSVRecord record : format.parse(reader)) {
+                records.add(record);
+                if (records.size() % PROGRESS_INTERVAL_ROWS == 0) {
+                    publishProgress(workspaceId, UploadProgressEvent.READING, progress.getCount(), totalBytes, records.size(), 0);
+                }
+            }
             Map<String, List<CSVRecord>> mapOfRecords = records.stream()
                     .collect(Collectors.groupingBy(r -> r.get(0)));
 
             Report report = new Report();
-            parser.forEach(p -> p.parse(mapOfRecords, report));
+            report.setVersion(snapshotStore.nextVersion(versions));
+            report.setFileName(fileName);
+            report.setWorkspaceId(workspaceId);
+            for (Parser p : parser) {
+                p.parse(mapOfRecords, report);
+                publishProgress(workspaceId, UploadProgressEvent.PARSING, progress.getCount(), totalBytes, records.size(),
+                        report.getSections().size());
+            }
+            // Fingerabdruck aus Inhalt und Version, Grundlage für ETags
+            report.setFingerprint(report.getVersion() + "-" + HexFormat.of().formatHex(digest.digest(), 0, 16));
+
+            // Publish the finished report as a compact immutable snapshot; the previous one stays in the history
+            Report published = reportCompactor.compact(report);
+            reportStore.put(workspaceId, published);
 
-            // Store the uploaded report
-            this.uploadedReport = report;
+            publishProgress(workspaceId, UploadProgressEvent.DONE, progress.getCount(), totalBytes, records.size(),
+                    published.getSections().size());
+            eventBroadcaster.publish(workspaceId, ReportEventBroadcaster.REPORT_VERSION,
+                    new ReportVersionEvent(published.getVersion(), published.getFingerprint(), fileName));
 
-            return report;
+            return published;
+        }
+    }
+
+    private void publishProgress(String workspaceId, String phase, long bytesRead, long totalBytes, long rows, int sections) {
+        eventBroadcaster.publish(workspaceId, ReportEventBroadcaster.UPLOAD_PROGRESS,
+                new UploadProgressEvent(phase, bytesRead, totalBytes, rows, sections));
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
         }
     }
 
     /**
-     * Check if there's an uploaded file
+     * Check if the workspace of the current request has an uploaded file
      */
     public boolean hasUploadedFile() {
-        return uploadedReport != null;
+        return getUploadedReport() != null;
     }
 
     /**
-     * Get the uploaded report
+     * Get the uploaded report of the current request's workspace
      */
     public Report getUploadedReport() {
-        return uploadedReport;
+        return getUploadedReport(workspaceResolver.currentWorkspace());
+    }
+
+    public Report getUploadedReport(String workspaceId) {
+        return reportStore.get(workspaceId);
+    }
+
+    /**
+     * Versions held for the current request's workspace, newest first
+     */
+    public List<ReportHistoryEntry> getVersionHistory() {
+        String workspaceId = workspaceResolver.currentWorkspace();
+        Report active = reportStore.get(workspaceId);
+        return reportStore.history(workspaceId).stream()
+                .map(report -> new ReportHistoryEntry(report.getVersion(), report.getFingerprint(), report.getFileName(),
+                        active != null && active.getVersion() == report.getVersion()))
+                .toList();
+    }
+
+    /**
+     * Make a version from the history the current report of the request's workspace
+     *
+     * @return the activated version, empty if it is not held (anymore)
+     */
+    public Optional<ReportHistoryEntry> activateVersion(long version) {
+        String workspaceId = workspaceResolver.currentWorkspace();
+        return reportStore.activate(workspaceId, version).map(report -> {
+            eventBroadcaster.publish(workspaceId, ReportEventBroadcaster.REPORT_VERSION,
+                    new ReportVersionEvent(report.getVersion(), report.getFingerprint(), report.getFileName()));
+            return new ReportHistoryEntry(report.getVersion(), report.getFingerprint(), report.getFileName(), true);
+        });
     }
 
     /**
-     * Clear uploaded file
+     * Clear uploaded file of the current request's workspace
      */
     public void clearUploadedFile() {
-        this.uploadedReport = null;
+        String workspaceId = workspaceResolver.currentWorkspace();
+        reportStore.remove(workspaceId);
+        eventBroadcaster.publish(workspaceId, ReportEventBroadcaster.REPORT_VERSION, ReportVersionEvent.NONE);
     }
 }
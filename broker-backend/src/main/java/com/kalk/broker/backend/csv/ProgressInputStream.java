@@ -0,0 +1,28 @@
+package com.kalk.broker.backend.csv;
+
+import java.io.InputStream;
+
+import org.apache.commons.io.input.ProxyInputStream;
+
+/**
+ * Zählt die gelesenen Bytes für die Fortschrittsmeldung eines Uploads
+ */
+class ProgressInputStream extends ProxyInputStream {
+
+    private long count;
+
+    ProgressInputStream(InputStream in) {
+        super(in);
+    }
+
+    @Override
+    protected void afterRead(int n) {
+        if (n > 0) {
+            count += n;
+        }
+    }
+
+    long getCount() {
+        return count;
+    }
+}
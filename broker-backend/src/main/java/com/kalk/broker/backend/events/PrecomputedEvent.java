@@ -0,0 +1,7 @@
+package com.kalk.broker.backend.events;
+
+/**
+ * Ein abgeleiteter Wert (z.B. "portfolio", "transactions") ist für eine Report-Version berechnet
+ */
+public record PrecomputedEvent(long version, String name, long durationMillis) {
+}
@@ -0,0 +1,90 @@
+package com.kalk.broker.backend.events;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Verteilt Report-Ereignisse (Upload-Fortschritt und -Status, neue Report-Version, fertig berechnete
+ * abgeleitete Daten) als Server-Sent Events an die verbundenen Clients eines Arbeitsbereichs
+ */
+@Component
+public class ReportEventBroadcaster {
+
+    public static final String UPLOAD_PROGRESS = "upload-progress";
+    public static final String UPLOAD_JOB = "upload-job";
+    public static final String REPORT_VERSION = "report-version";
+    public static final String PRECOMPUTED = "precomputed";
+
+    private static final Logger logger = LoggerFactory.getLogger(ReportEventBroadcaster.class);
+
+    private final Map<String, List<SseEmitter>> emitters = new ConcurrentHashMap<>();
+    private final long timeout;
+
+    public ReportEventBroadcaster(@Value("${broker.events.timeout:1800000}") long timeout) {
+        this.timeout = timeout;
+    }
+
+    /**
+     * Meldet einen neuen Client an; das erste Ereignis ist der aktuelle Report-Stand
+     */
+    public SseEmitter subscribe(String workspaceId, ReportVersionEvent current) {
+        SseEmitter emitter = new SseEmitter(timeout);
+        emitter.onCompletion(() -> unsubscribe(workspaceId, emitter));
+        emitter.onTimeout(() -> unsubscribe(workspaceId, emitter));
+        emitter.onError(e -> unsubscribe(workspaceId, emitter));
+        emitters.compute(workspaceId, (id, subscribers) -> {
+            List<SseEmitter> list = subscribers != null ? subscribers : new CopyOnWriteArrayList<>();
+            list.add(emitter);
+            return list;
+        });
+
+        if (!send(emitter, REPORT_VERSION, current)) {
+            unsubscribe(workspaceId, emitter);
+        }
+        return emitter;
+    }
+
+    public boolean hasSubscribers(String workspaceId) {
+        List<SseEmitter> subscribers = emitters.get(workspaceId);
+        return subscribers != null && !subscribers.isEmpty();
+    }
+
+    public void publish(String workspaceId, String name, Object data) {
+        List<SseEmitter> subscribers = workspaceId != null ? emitters.get(workspaceId) : null;
+        if (subscribers == null) {
+            return;
+        }
+        for (SseEmitter emitter : subscribers) {
+            if (!send(emitter, name, data)) {
+                unsubscribe(workspaceId, emitter);
+            }
+        }
+    }
+
+    private void unsubscribe(String workspaceId, SseEmitter emitter) {
+        emitters.computeIfPresent(workspaceId, (id, subscribers) -> {
+            subscribers.remove(emitter);
+            return subscribers.isEmpty() ? null : subscribers;
+        });
+    }
+
+    private static boolean send(SseEmitter emitter, String name, Object data) {
+        try {
+            emitter.send(SseEmitter.event().name(name).data(data, MediaType.APPLICATION_JSON));
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            logger.debug("Dropping event subscriber: {}", e.getMessage());
+            return false;
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.kalk.broker.backend.events;
+
+/**
+ * Aktueller Report-Stand; Version 0 bedeutet, dass kein Report hochgeladen ist
+ */
+public record ReportVersionEvent(long version, String fingerprint, String fileName) {
+
+    public static final ReportVersionEvent NONE = new ReportVersionEvent(0, null, null);
+}
@@ -0,0 +1,17 @@
+package com.kalk.broker.backend.events;
+
+/**
+ * Fortschritt eines Uploads
+ *
+ * @param phase "reading" während des Einlesens, "parsing" während der Sektions-Parser, danach "done"
+ * @param bytesRead bisher gelesene Bytes
+ * @param totalBytes Dateigröße laut Upload (-1 wenn unbekannt)
+ * @param rows bisher gelesene CSV-Zeilen
+ * @param sections bisher erkannte Sektionen
+ */
+public record UploadProgressEvent(String phase, long bytesRead, long totalBytes, long rows, int sections) {
+
+    public static final String READING = "reading";
+    public static final String PARSING = "parsing";
+    public static final String DONE = "done";
+}
@@ -3,6 +3,7 @@ package com.kalk.broker.backend.exception;
 import com.kalk.broker.backend.config.AppConstants;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
@@ -27,6 +28,26 @@ public class GlobalExceptionHandler {
         return createErrorResponse(HttpStatus.BAD_REQUEST, ex.getMessage());
     }
 
+    @ExceptionHandler(InvalidQueryException.class)
+    public ResponseEntity<Map<String, Object>> handleInvalidQueryException(InvalidQueryException ex) {
+        logger.warn("Invalid query: {}", ex.getMessage());
+        return createErrorResponse(HttpStatus.BAD_REQUEST, ex.getMessage());
+    }
+
+    @ExceptionHandler(StaleCursorException.class)
+    public ResponseEntity<Map<String, Object>> handleStaleCursorException(StaleCursorException ex) {
+        logger.warn("Stale cursor: {}", ex.getMessage());
+        return createErrorResponse(HttpStatus.GONE, ex.getMessage());
+    }
+
+    @ExceptionHandler(UploadRejectedException.class)
+    public ResponseEntity<Map<String, Object>> handleUploadRejectedException(UploadRejectedException ex) {
+        logger.warn("Upload rejected: {}", ex.getMessage());
+        return ResponseEntity.status(ex.getStatus())
+            .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+            .body(createErrorResponse(ex.getStatus(), ex.getMessage()).getBody());
+    }
+
     @ExceptionHandler(IOException.class)
     public ResponseEntity<Map<String, Object>> handleIOException(IOException ex) {
         logger.error("IO error: {}", ex.getMessage(), ex);
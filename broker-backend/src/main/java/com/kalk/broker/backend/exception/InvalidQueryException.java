@@ -0,0 +1,11 @@
+package com.kalk.broker.backend.exception;
+
+/**
+ * Exception for invalid query parameters such as unknown sort fields or malformed cursors
+ */
+public class InvalidQueryException extends RuntimeException {
+
+    public InvalidQueryException(String message) {
+        super(message);
+    }
+}
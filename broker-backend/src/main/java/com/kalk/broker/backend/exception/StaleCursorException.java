@@ -0,0 +1,11 @@
+package com.kalk.broker.backend.exception;
+
+/**
+ * Exception for cursors that belong to a report version which is no longer current
+ */
+public class StaleCursorException extends RuntimeException {
+
+    public StaleCursorException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,26 @@
+package com.kalk.broker.backend.exception;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * Exception for uploads rejected because the ingest queue (429) or the ingest memory budget (503) is exhausted
+ */
+public class UploadRejectedException extends RuntimeException {
+
+    private final HttpStatus status;
+    private final long retryAfterSeconds;
+
+    public UploadRejectedException(String message, HttpStatus status, long retryAfterSeconds) {
+        super(message);
+        this.status = status;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public HttpStatus getStatus() {
+        return status;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
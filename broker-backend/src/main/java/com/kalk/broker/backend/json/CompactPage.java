@@ -0,0 +1,52 @@
+package com.kalk.broker.backend.json;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializable;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+import com.kalk.broker.backend.pojo.Page;
+import com.kalk.broker.backend.pojo.SectionData;
+
+/**
+ * Kompakte JSON-Darstellung einer Seite von Sektionszeilen ({@code format=compact}):
+ * Spaltennamen einmal unter {@code headers}, die Zeilen der Seite als Werte-Arrays unter {@code rows},
+ * dazu die Seitenangaben wie bei {@link Page}.
+ */
+public class CompactPage implements JsonSerializable {
+
+    private final SectionData section;
+    private final Page<Map<String, String>> page;
+    private final Set<String> fields;
+
+    public CompactPage(SectionData section, Page<Map<String, String>> page, Set<String> fields) {
+        this.section = section;
+        this.page = page;
+        this.fields = fields;
+    }
+
+    @Override
+    public void serialize(JsonGenerator generator, SerializerProvider provider) throws IOException {
+        List<String> columns = SectionJsonWriter.compactColumns(section, fields);
+        generator.writeStartObject();
+        SectionJsonWriter.writeColumns(generator, columns);
+        generator.writeFieldName("rows");
+        SectionJsonWriter.writeCompactRows(generator, columns, page.getItems());
+        generator.writeNumberField("limit", page.getLimit());
+        generator.writeNumberField("totalCount", page.getTotalCount());
+        generator.writeStringField("nextCursor", page.getNextCursor());
+        generator.writeBooleanField("hasMore", page.isHasMore());
+        generator.writeNumberField("version", page.getVersion());
+        generator.writeEndObject();
+    }
+
+    @Override
+    public void serializeWithType(JsonGenerator generator, SerializerProvider provider, TypeSerializer typeSerializer)
+            throws IOException {
+        serialize(generator, provider);
+    }
+}
@@ -0,0 +1,37 @@
+package com.kalk.broker.backend.json;
+
+import java.io.IOException;
+import java.util.Set;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializable;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+import com.kalk.broker.backend.pojo.SectionData;
+
+/**
+ * Kompakte JSON-Darstellung einer Sektion ({@code format=compact}): die Spaltennamen einmal unter
+ * {@code headers}, die Zeilen als Werte-Arrays unter {@code rows}. Wird direkt aus {@link SectionData}
+ * geschrieben, ohne Zwischenobjekte je Zeile.
+ */
+public class CompactSection implements JsonSerializable {
+
+    private final SectionData section;
+    private final Set<String> fields;
+
+    public CompactSection(SectionData section, Set<String> fields) {
+        this.section = section;
+        this.fields = fields;
+    }
+
+    @Override
+    public void serialize(JsonGenerator generator, SerializerProvider provider) throws IOException {
+        SectionJsonWriter.writeCompactSection(generator, section, fields);
+    }
+
+    @Override
+    public void serializeWithType(JsonGenerator generator, SerializerProvider provider, TypeSerializer typeSerializer)
+            throws IOException {
+        serialize(generator, provider);
+    }
+}
@@ -0,0 +1,71 @@
+package com.kalk.broker.backend.json;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import org.springframework.stereotype.Component;
+
+/**
+ * Löst einen {@code fields=}-Parameter in einen vorbereiteten {@link ObjectWriter} auf.
+ * Writer werden je Wurzeltyp und Feldmenge einmal erstellt und in einem begrenzten LRU-Cache gehalten.
+ */
+@Component
+public class FieldProjection {
+
+    private static final int MAX_WRITERS = 256;
+
+    private final ObjectMapper objectMapper;
+    private final Map<WriterKey, ObjectWriter> writers = Collections.synchronizedMap(
+            new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<WriterKey, ObjectWriter> eldest) {
+                    return size() > MAX_WRITERS;
+                }
+            });
+
+    public FieldProjection(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Zerlegt einen kommaseparierten Feldparameter in eine sortierte Feldmenge
+     *
+     * @return die Feldmenge, leer wenn keine Projektion gewünscht ist
+     */
+    public static Set<String> parseFields(String fields) {
+        if (fields == null || fields.isBlank()) {
+            return Set.of();
+        }
+        return Arrays.stream(fields.split(","))
+                .map(String::trim)
+                .filter(field -> !field.isEmpty())
+                .collect(Collectors.toCollection(TreeSet::new));
+    }
+
+    /**
+     * Liefert den Writer für einen Wurzeltyp, der nur die angegebenen Felder projizierbarer Typen schreibt
+     */
+    public ObjectWriter writerFor(Class<?> type, Set<String> fields) {
+        WriterKey key = new WriterKey(type, fields);
+        ObjectWriter writer = writers.get(key);
+        if (writer == null) {
+            SimpleFilterProvider filters = new SimpleFilterProvider()
+                    .addFilter(JsonConfiguration.FIELDS_FILTER, SimpleBeanPropertyFilter.filterOutAllExcept(fields));
+            writer = objectMapper.writerFor(type).with(filters);
+            writers.put(key, writer);
+        }
+        return writer;
+    }
+
+    private record WriterKey(Class<?> type, Set<String> fields) {
+    }
+}
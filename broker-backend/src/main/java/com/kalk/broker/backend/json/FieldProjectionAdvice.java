@@ -0,0 +1,73 @@
+package com.kalk.broker.backend.json;
+
+import java.io.IOException;
+import java.util.Set;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializable;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.AbstractJackson2HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Wendet den Request-Parameter {@code fields=} auf JSON- und Smile-Antworten der Report-Endpunkte an.
+ * Projizierbare Objekte (Transaktionen, Positionen, Dividenden, Veräußerungsgewinne) und Sektionszeilen
+ * werden dann nur mit den angegebenen Feldern geschrieben.
+ */
+@ControllerAdvice
+public class FieldProjectionAdvice implements ResponseBodyAdvice<Object> {
+
+    public static final String FIELDS_PARAMETER = "fields";
+
+    private final FieldProjection fieldProjection;
+
+    public FieldProjectionAdvice(FieldProjection fieldProjection) {
+        this.fieldProjection = fieldProjection;
+    }
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return AbstractJackson2HttpMessageConverter.class.isAssignableFrom(converterType);
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        if (body == null || !(request instanceof ServletServerHttpRequest servletRequest)) {
+            return body;
+        }
+
+        Set<String> fields = FieldProjection.parseFields(servletRequest.getServletRequest().getParameter(FIELDS_PARAMETER));
+        if (fields.isEmpty()) {
+            return body;
+        }
+        return new ProjectedValue(body, fieldProjection.writerFor(body.getClass(), fields));
+    }
+
+    /**
+     * Antwortwert, der mit dem vorbereiteten Writer der Feldmenge geschrieben wird
+     */
+    private record ProjectedValue(Object value, ObjectWriter writer) implements JsonSerializable {
+
+        @Override
+        public void serialize(JsonGenerator generator, SerializerProvider provider) throws IOException {
+            writer.writeValue(generator, value);
+        }
+
+        @Override
+        public void serializeWithType(JsonGenerator generator, SerializerProvider provider, TypeSerializer typeSerializer)
+                throws IOException {
+            serialize(generator, provider);
+        }
+    }
+}
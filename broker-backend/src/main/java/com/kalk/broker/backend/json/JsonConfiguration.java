@@ -0,0 +1,74 @@
+package com.kalk.broker.backend.json;
+
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.kalk.broker.backend.pojo.Dividend;
+import com.kalk.broker.backend.pojo.Page;
+import com.kalk.broker.backend.pojo.Position;
+import com.kalk.broker.backend.pojo.SectionData;
+import com.kalk.broker.backend.pojo.TaxRelevantData;
+import com.kalk.broker.backend.pojo.Transaction;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+/**
+ * Jackson-Konfiguration für die Feldprojektion ({@code fields=}) und das Binärformat Smile.
+ * Projizierbare Typen und Zeilen-Maps werden per Mixin mit dem Filter {@link #FIELDS_FILTER} markiert;
+ * ohne Projektion serialisiert der Standardfilter alle Felder.
+ */
+@Configuration
+public class JsonConfiguration {
+
+    public static final String FIELDS_FILTER = "fields";
+
+    @Bean
+    public Jackson2ObjectMapperBuilderCustomizer fieldProjectionCustomizer() {
+        return builder -> builder
+                .mixIn(Transaction.class, ProjectableMixin.class)
+                .mixIn(Position.class, ProjectableMixin.class)
+                .mixIn(Dividend.class, ProjectableMixin.class)
+                .mixIn(TaxRelevantData.CapitalGain.class, ProjectableMixin.class)
+                .mixIn(SectionData.class, SectionDataMixin.class)
+                .mixIn(Page.class, PageMixin.class)
+                .filters(new SimpleFilterProvider()
+                        .setDefaultFilter(SimpleBeanPropertyFilter.serializeAll())
+                        .setFailOnUnknownId(false));
+    }
+
+    /**
+     * Smile-Converter ({@code Accept: application/x-jackson-smile}) mit derselben Konfiguration wie JSON.
+     * JSON bleibt das Standardformat.
+     */
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+    }
+
+    @JsonFilter(FIELDS_FILTER)
+    abstract static class ProjectableMixin {
+    }
+
+    /**
+     * Die Spalten der Datenzeilen werden projiziert, Header und Metadaten bleiben vollständig
+     */
+    abstract static class SectionDataMixin {
+        @JsonFilter(FIELDS_FILTER)
+        abstract List<Map<String, String>> getDataRows();
+    }
+
+    /**
+     * Wirkt auf Zeilen-Maps als Einträge; Beans als Einträge werden über ihren eigenen Filter projiziert
+     */
+    abstract static class PageMixin {
+        @JsonFilter(FIELDS_FILTER)
+        abstract List<?> getItems();
+    }
+}
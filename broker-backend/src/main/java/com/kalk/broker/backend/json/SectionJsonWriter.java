@@ -0,0 +1,224 @@
+package com.kalk.broker.backend.json;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kalk.broker.backend.pojo.SectionData;
+import org.springframework.stereotype.Component;
+
+/**
+ * Schreibt Sektionen direkt mit einem Jackson-Generator in einen Ausgabestrom.
+ * Die Zeilen werden einzeln aus {@link SectionData} geschrieben, ohne den gesamten Antworttext
+ * im Speicher aufzubauen; das JSON entspricht dem der nicht gestreamten Endpunkte.
+ */
+@Component
+public class SectionJsonWriter {
+
+    public static final String APPLICATION_NDJSON = "application/x-ndjson";
+    public static final String FORMAT_COMPACT = "compact";
+
+    // wird nicht als Spalte ausgegeben, der Wert entspricht dem Sektionsnamen
+    private static final String SECTION_KEY = "_section";
+
+    private final ObjectMapper objectMapper;
+
+    public SectionJsonWriter(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Schreibt alle Sektionen als JSON-Objekt Sektionsname → Sektion
+     *
+     * @param fields Spalten der Datenzeilen, die geschrieben werden; leer für alle
+     * @param compact ob die Sektionen im kompakten Format geschrieben werden
+     */
+    public void writeSections(Map<String, SectionData> sections, Set<String> fields, boolean compact,
+                              OutputStream out) throws IOException {
+        try (JsonGenerator generator = createGenerator(out)) {
+            generator.writeStartObject();
+            for (Map.Entry<String, SectionData> entry : sections.entrySet()) {
+                generator.writeFieldName(entry.getKey());
+                if (compact) {
+                    writeCompactSection(generator, entry.getValue(), fields);
+                } else {
+                    writeSection(generator, entry.getValue(), fields);
+                }
+            }
+            generator.writeEndObject();
+        }
+    }
+
+    /**
+     * Schreibt die Zeilen einer Sektion als JSON-Array
+     *
+     * @param fields Spalten, die geschrieben werden; leer für alle
+     */
+    public void writeRows(List<Map<String, String>> rows, Set<String> fields, OutputStream out) throws IOException {
+        try (JsonGenerator generator = createGenerator(out)) {
+            writeRows(generator, rows, fields);
+        }
+    }
+
+    /**
+     * Schreibt die Zeilen einer Sektion als NDJSON, ein JSON-Objekt pro Zeile
+     *
+     * @param fields Spalten, die geschrieben werden; leer für alle
+     */
+    public void writeRowsAsNdjson(List<Map<String, String>> rows, Set<String> fields, OutputStream out) throws IOException {
+        try (JsonGenerator generator = createGenerator(out)) {
+            generator.setRootValueSeparator(null);
+            for (Map<String, String> row : rows) {
+                writeRow(generator, row, fields);
+                generator.writeRaw('\n');
+            }
+        }
+    }
+
+    /**
+     * Schreibt die Zeilen einer Sektion kompakt als {@code {"headers":[...],"rows":[[...],...]}}
+     *
+     * @param fields Spalten, die geschrieben werden; leer für alle
+     */
+    public void writeCompactRows(SectionData section, List<Map<String, String>> rows, Set<String> fields,
+                                 OutputStream out) throws IOException {
+        try (JsonGenerator generator = createGenerator(out)) {
+            List<String> columns = compactColumns(section, fields);
+            generator.writeStartObject();
+            writeColumns(generator, columns);
+            generator.writeFieldName("rows");
+            writeCompactRows(generator, columns, rows);
+            generator.writeEndObject();
+        }
+    }
+
+    /**
+     * Schreibt die Zeilen einer Sektion kompakt als NDJSON: erste Zeile die Spaltennamen,
+     * danach ein Werte-Array pro Datenzeile
+     *
+     * @param fields Spalten, die geschrieben werden; leer für alle
+     */
+    public void writeCompactRowsAsNdjson(SectionData section, List<Map<String, String>> rows, Set<String> fields,
+                                         OutputStream out) throws IOException {
+        try (JsonGenerator generator = createGenerator(out)) {
+            generator.setRootValueSeparator(null);
+            List<String> columns = compactColumns(section, fields);
+            generator.writeStartArray();
+            for (String column : columns) {
+                generator.writeString(column);
+            }
+            generator.writeEndArray();
+            generator.writeRaw('\n');
+            for (Map<String, String> row : rows) {
+                writeCompactRow(generator, columns, row);
+                generator.writeRaw('\n');
+            }
+        }
+    }
+
+    /**
+     * Schreibt eine Sektion kompakt: Spaltennamen einmal, Zeilen als Werte-Arrays in Spaltenreihenfolge
+     */
+    static void writeCompactSection(JsonGenerator generator, SectionData section, Set<String> fields) throws IOException {
+        List<String> columns = compactColumns(section, fields);
+        generator.writeStartObject();
+        generator.writeStringField("sectionName", section.getSectionName());
+        writeColumns(generator, columns);
+        generator.writeFieldName("rows");
+        writeCompactRows(generator, columns, section.getDataRows());
+        generator.writeFieldName("metadata");
+        generator.writeStartObject();
+        for (Map.Entry<String, String> entry : section.getMetadata().entrySet()) {
+            generator.writeStringField(entry.getKey(), entry.getValue());
+        }
+        generator.writeEndObject();
+        generator.writeEndObject();
+    }
+
+    static void writeColumns(JsonGenerator generator, List<String> columns) throws IOException {
+        generator.writeArrayFieldStart("headers");
+        for (String column : columns) {
+            generator.writeString(column);
+        }
+        generator.writeEndArray();
+    }
+
+    static void writeCompactRows(JsonGenerator generator, List<String> columns, List<Map<String, String>> rows)
+            throws IOException {
+        generator.writeStartArray();
+        for (Map<String, String> row : rows) {
+            writeCompactRow(generator, columns, row);
+        }
+        generator.writeEndArray();
+    }
+
+    private static void writeCompactRow(JsonGenerator generator, List<String> columns, Map<String, String> row)
+            throws IOException {
+        generator.writeStartArray();
+        for (String column : columns) {
+            generator.writeString(row.get(column));
+        }
+        generator.writeEndArray();
+    }
+
+    /**
+     * Spalten für das kompakte Format: {@link SectionData#columns()} ohne {@code _section},
+     * eingeschränkt auf die angeforderten Felder
+     */
+    static List<String> compactColumns(SectionData section, Set<String> fields) {
+        List<String> columns = new ArrayList<>(section.columns().size());
+        for (String column : section.columns()) {
+            if (!SECTION_KEY.equals(column) && (fields.isEmpty() || fields.contains(column))) {
+                columns.add(column);
+            }
+        }
+        return columns;
+    }
+
+    private void writeSection(JsonGenerator generator, SectionData section, Set<String> fields) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("sectionName", section.getSectionName());
+        generator.writeArrayFieldStart("headers");
+        for (String header : section.getHeaders()) {
+            generator.writeString(header);
+        }
+        generator.writeEndArray();
+        generator.writeFieldName("dataRows");
+        writeRows(generator, section.getDataRows(), fields);
+        generator.writeFieldName("metadata");
+        writeRow(generator, section.getMetadata(), Set.of());
+        generator.writeEndObject();
+    }
+
+    private void writeRows(JsonGenerator generator, List<Map<String, String>> rows, Set<String> fields) throws IOException {
+        generator.writeStartArray();
+        for (Map<String, String> row : rows) {
+            writeRow(generator, row, fields);
+        }
+        generator.writeEndArray();
+    }
+
+    private void writeRow(JsonGenerator generator, Map<String, String> row, Set<String> fields) throws IOException {
+        if (row == null) {
+            generator.writeNull();
+            return;
+        }
+        generator.writeStartObject();
+        for (Map.Entry<String, String> field : row.entrySet()) {
+            if (fields.isEmpty() || fields.contains(field.getKey())) {
+                generator.writeStringField(field.getKey(), field.getValue());
+            }
+        }
+        generator.writeEndObject();
+    }
+
+    private JsonGenerator createGenerator(OutputStream out) throws IOException {
+        // der Servlet-Strom wird vom Container geschlossen
+        return objectMapper.getFactory().createGenerator(out).disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    }
+}
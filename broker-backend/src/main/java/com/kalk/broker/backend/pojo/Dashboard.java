@@ -0,0 +1,57 @@
+package com.kalk.broker.backend.pojo;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Antwort des Dashboard-Endpunkts: die angeforderten Ansichten in der angefragten Reihenfolge.
+ * Schlägt eine Ansicht fehl, steht die Fehlermeldung unter {@code errors}, die übrigen Ansichten
+ * werden trotzdem geliefert.
+ */
+public class Dashboard {
+
+    private boolean hasUploadedFile;
+    private long version; // Report-Version, aus der alle Ansichten stammen
+    private Map<String, Object> views = new LinkedHashMap<>();
+    private Map<String, String> errors = new LinkedHashMap<>();
+
+    public Dashboard() {}
+
+    public Dashboard(boolean hasUploadedFile, long version) {
+        this.hasUploadedFile = hasUploadedFile;
+        this.version = version;
+    }
+
+    // Getters and Setters
+    public boolean isHasUploadedFile() {
+        return hasUploadedFile;
+    }
+
+    public void setHasUploadedFile(boolean hasUploadedFile) {
+        this.hasUploadedFile = hasUploadedFile;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    public Map<String, Object> getViews() {
+        return views;
+    }
+
+    public void setViews(Map<String, Object> views) {
+        this.views = views;
+    }
+
+    public Map<String, String> getErrors() {
+        return errors;
+    }
+
+    public void setErrors(Map<String, String> errors) {
+        this.errors = errors;
+    }
+}
@@ -0,0 +1,107 @@
+package com.kalk.broker.backend.pojo;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tägliche Bestandshistorie, rekonstruiert aus den Transaktionen.
+ * Jede Serie deckt die Tage ab {@code startDate + offset} ab und speichert Menge und Kostenbasis
+ * als primitive Spalten (ein Wert pro Kalendertag, Stand Tagesende). Eine Serie endet mit dem
+ * letzten Tag mit Bestand; danach ist die Menge 0.
+ */
+public class HoldingsHistory {
+
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private List<Series> series = new ArrayList<>();
+
+    public static class Series {
+        private String assetKey;
+        private String symbol;
+        private String assetCategory;
+        private String currency;
+        private int offset; // Tage seit startDate
+        private double[] quantity;
+        private double[] costBasis;
+
+        public Series() {}
+
+        public Series(String assetKey, String symbol, int offset, double[] quantity, double[] costBasis) {
+            this.assetKey = assetKey;
+            this.symbol = symbol;
+            this.offset = offset;
+            this.quantity = quantity;
+            this.costBasis = costBasis;
+        }
+
+        // Getters and Setters
+        public String getAssetKey() { return assetKey; }
+        public void setAssetKey(String assetKey) { this.assetKey = assetKey; }
+
+        public String getSymbol() { return symbol; }
+        public void setSymbol(String symbol) { this.symbol = symbol; }
+
+        public String getAssetCategory() { return assetCategory; }
+        public void setAssetCategory(String assetCategory) { this.assetCategory = assetCategory; }
+
+        public String getCurrency() { return currency; }
+        public void setCurrency(String currency) { this.currency = currency; }
+
+        public int getOffset() { return offset; }
+        public void setOffset(int offset) { this.offset = offset; }
+
+        public double[] getQuantity() { return quantity; }
+        public void setQuantity(double[] quantity) { this.quantity = quantity; }
+
+        public double[] getCostBasis() { return costBasis; }
+        public void setCostBasis(double[] costBasis) { this.costBasis = costBasis; }
+
+        public int getLength() { return quantity != null ? quantity.length : 0; }
+    }
+
+    public HoldingsHistory() {}
+
+    public HoldingsHistory(LocalDate startDate, LocalDate endDate) {
+        this.startDate = startDate;
+        this.endDate = endDate;
+    }
+
+    // Getters and Setters
+    public LocalDate getStartDate() {
+        return startDate;
+    }
+
+    public void setStartDate(LocalDate startDate) {
+        this.startDate = startDate;
+    }
+
+    public LocalDate getEndDate() {
+        return endDate;
+    }
+
+    public void setEndDate(LocalDate endDate) {
+        this.endDate = endDate;
+    }
+
+    public List<Series> getSeries() {
+        return series;
+    }
+
+    public void setSeries(List<Series> series) {
+        this.series = series;
+    }
+
+    public void addSeries(Series series) {
+        this.series.add(series);
+    }
+
+    @Override
+    public String toString() {
+        return "HoldingsHistory{" +
+                "startDate=" + startDate +
+                ", endDate=" + endDate +
+                ", series=" + series.size() +
+                '}';
+    }
+}
@@ -0,0 +1,117 @@
+package com.kalk.broker.backend.pojo;
+
+import java.time.LocalDateTime;
+
+/**
+ * Positionsverändernde Buchung im Positions-Ledger (Ausführung, Dividende, Verfall)
+ */
+public class LedgerEvent {
+
+    public enum Type {
+        FILL,
+        DIVIDEND,
+        EXPIRY
+    }
+
+    private Type type;
+    private LocalDateTime dateTime;
+    private String assetKey;
+    private String symbol;
+    private String assetCategory;
+    private String currency;
+    private double quantity; // gehandelte Menge, 0 bei Dividenden
+    private double amount; // Kosten inkl. Gebühren bei Ausführungen, Betrag bei Dividenden
+    private double price; // Ausführungskurs je Einheit inkl. Multiplikator, 0 bei Dividenden
+
+    public LedgerEvent() {}
+
+    public LedgerEvent(Type type, LocalDateTime dateTime, String assetKey) {
+        this.type = type;
+        this.dateTime = dateTime;
+        this.assetKey = assetKey;
+    }
+
+    // Getters and Setters
+    public Type getType() {
+        return type;
+    }
+
+    public void setType(Type type) {
+        this.type = type;
+    }
+
+    public LocalDateTime getDateTime() {
+        return dateTime;
+    }
+
+    public void setDateTime(LocalDateTime dateTime) {
+        this.dateTime = dateTime;
+    }
+
+    public String getAssetKey() {
+        return assetKey;
+    }
+
+    public void setAssetKey(String assetKey) {
+        this.assetKey = assetKey;
+    }
+
+    public String getSymbol() {
+        return symbol;
+    }
+
+    public void setSymbol(String symbol) {
+        this.symbol = symbol;
+    }
+
+    public String getAssetCategory() {
+        return assetCategory;
+    }
+
+    public void setAssetCategory(String assetCategory) {
+        this.assetCategory = assetCategory;
+    }
+
+    public String getCurrency() {
+        return currency;
+    }
+
+    public void setCurrency(String currency) {
+        this.currency = currency;
+    }
+
+    public double getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(double quantity) {
+        this.quantity = quantity;
+    }
+
+    public double getAmount() {
+        return amount;
+    }
+
+    public void setAmount(double amount) {
+        this.amount = amount;
+    }
+
+    public double getPrice() {
+        return price;
+    }
+
+    public void setPrice(double price) {
+        this.price = price;
+    }
+
+    @Override
+    public String toString() {
+        return "LedgerEvent{" +
+                "type=" + type +
+                ", dateTime=" + dateTime +
+                ", assetKey='" + assetKey + '\'' +
+                ", quantity=" + quantity +
+                ", amount=" + amount +
+                '}';
+    }
+}
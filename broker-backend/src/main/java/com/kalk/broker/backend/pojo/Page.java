@@ -0,0 +1,72 @@
+package com.kalk.broker.backend.pojo;
+
+import java.util.List;
+
+/**
+ * Eine Seite eines Abfrageergebnisses mit Cursor für die Folgeseite.
+ * Der Cursor ist an die Report-Version gebunden, alle Seiten einer Abfrage stammen daher
+ * aus demselben Datenstand.
+ */
+public class Page<T> {
+
+    private List<T> items;
+    private int limit;
+    private int totalCount; // Anzahl aller Treffer der Abfrage
+    private String nextCursor; // null auf der letzten Seite
+    private long version; // Report-Version, aus der die Seite stammt
+
+    public Page() {}
+
+    public Page(List<T> items, int limit, int totalCount, String nextCursor, long version) {
+        this.items = items;
+        this.limit = limit;
+        this.totalCount = totalCount;
+        this.nextCursor = nextCursor;
+        this.version = version;
+    }
+
+    // Getters and Setters
+    public List<T> getItems() {
+        return items;
+    }
+
+    public void setItems(List<T> items) {
+        this.items = items;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public void setLimit(int limit) {
+        this.limit = limit;
+    }
+
+    public int getTotalCount() {
+        return totalCount;
+    }
+
+    public void setTotalCount(int totalCount) {
+        this.totalCount = totalCount;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    public boolean isHasMore() {
+        return nextCursor != null;
+    }
+}
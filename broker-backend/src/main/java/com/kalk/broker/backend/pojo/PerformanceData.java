@@ -13,6 +13,8 @@ public class PerformanceData {
     private BigDecimal totalReturnPercent;
     private BigDecimal costBasis;
     private BigDecimal totalDividends;
+    private BigDecimal timeWeightedReturn; // TWR über den Berichtszeitraum, 0.1 = 10 %
+    private BigDecimal moneyWeightedReturn; // IRR p.a., 0.1 = 10 %, null wenn nicht aussagekräftig (z. B. sehr kurze Haltedauer)
     
     public PerformanceData() {}
     
@@ -21,6 +23,18 @@ public class PerformanceData {
         this.unrealizedPnL = unrealizedPnL;
         this.totalPnL = realizedPnL.add(unrealizedPnL);
     }
+
+    public PerformanceData(PerformanceData other) {
+        this.realizedPnL = other.realizedPnL;
+        this.unrealizedPnL = other.unrealizedPnL;
+        this.totalPnL = other.totalPnL;
+        this.totalReturn = other.totalReturn;
+        this.totalReturnPercent = other.totalReturnPercent;
+        this.costBasis = other.costBasis;
+        this.totalDividends = other.totalDividends;
+        this.timeWeightedReturn = other.timeWeightedReturn;
+        this.moneyWeightedReturn = other.moneyWeightedReturn;
+    }
     
     // Getters and Setters
     public BigDecimal getRealizedPnL() {
@@ -79,11 +93,29 @@ public class PerformanceData {
         this.totalDividends = totalDividends;
     }
     
+    public BigDecimal getTimeWeightedReturn() {
+        return timeWeightedReturn;
+    }
+    
+    public void setTimeWeightedReturn(BigDecimal timeWeightedReturn) {
+        this.timeWeightedReturn = timeWeightedReturn;
+    }
+    
+    public BigDecimal getMoneyWeightedReturn() {
+        return moneyWeightedReturn;
+    }
+    
+    public void setMoneyWeightedReturn(BigDecimal moneyWeightedReturn) {
+        this.moneyWeightedReturn = moneyWeightedReturn;
+    }
+    
     @Override
     public String toString() {
         return "PerformanceData{" +
                 "totalPnL=" + totalPnL +
                 ", totalReturnPercent=" + totalReturnPercent +
+                ", timeWeightedReturn=" + timeWeightedReturn +
+                ", moneyWeightedReturn=" + moneyWeightedReturn +
                 ", totalDividends=" + totalDividends +
                 '}';
     }
@@ -20,6 +20,8 @@ public class Portfolio {
     private BigDecimal totalDividends;
     private List<Position> positions = new ArrayList<>();
     private Map<String, BigDecimal> currencyTotals = new HashMap<>();
+    private PerformanceData performance;
+    private PortfolioAggregates aggregates;
 
     public Portfolio() {}
 
@@ -108,6 +110,22 @@ public class Portfolio {
         this.currencyTotals.put(currency, amount);
     }
 
+    public PerformanceData getPerformance() {
+        return performance;
+    }
+
+    public void setPerformance(PerformanceData performance) {
+        this.performance = performance;
+    }
+
+    public PortfolioAggregates getAggregates() {
+        return aggregates;
+    }
+
+    public void setAggregates(PortfolioAggregates aggregates) {
+        this.aggregates = aggregates;
+    }
+
     @Override
     public String toString() {
         return "Portfolio{" +
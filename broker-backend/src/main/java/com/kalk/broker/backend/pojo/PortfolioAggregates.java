@@ -0,0 +1,73 @@
+package com.kalk.broker.backend.pojo;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Vorberechnete Portfolio-Summen je Währung, je Vermögenswertkategorie und gesamt.
+ * Summen je Währung bleiben in der jeweiligen Währung; Kategorie- und Gesamtsummen werden
+ * in die Basiswährung umgerechnet, sofern {@link #isConverted()} gesetzt ist.
+ */
+public class PortfolioAggregates {
+    private String baseCurrency;
+    private boolean converted; // true, wenn alle Beträge in die Basiswährung umgerechnet werden konnten
+    private PortfolioTotals total = new PortfolioTotals();
+    private Map<String, PortfolioTotals> byCurrency = new TreeMap<>();
+    private Map<String, PortfolioTotals> byAssetCategory = new TreeMap<>();
+
+    public PortfolioAggregates() {}
+
+    public PortfolioAggregates(String baseCurrency) {
+        this.baseCurrency = baseCurrency;
+    }
+
+    // Getters and Setters
+    public String getBaseCurrency() {
+        return baseCurrency;
+    }
+
+    public void setBaseCurrency(String baseCurrency) {
+        this.baseCurrency = baseCurrency;
+    }
+
+    public boolean isConverted() {
+        return converted;
+    }
+
+    public void setConverted(boolean converted) {
+        this.converted = converted;
+    }
+
+    public PortfolioTotals getTotal() {
+        return total;
+    }
+
+    public void setTotal(PortfolioTotals total) {
+        this.total = total;
+    }
+
+    public Map<String, PortfolioTotals> getByCurrency() {
+        return byCurrency;
+    }
+
+    public void setByCurrency(Map<String, PortfolioTotals> byCurrency) {
+        this.byCurrency = byCurrency;
+    }
+
+    public Map<String, PortfolioTotals> getByAssetCategory() {
+        return byAssetCategory;
+    }
+
+    public void setByAssetCategory(Map<String, PortfolioTotals> byAssetCategory) {
+        this.byAssetCategory = byAssetCategory;
+    }
+
+    @Override
+    public String toString() {
+        return "PortfolioAggregates{" +
+                "baseCurrency='" + baseCurrency + '\'' +
+                ", converted=" + converted +
+                ", total=" + total +
+                '}';
+    }
+}
@@ -0,0 +1,76 @@
+package com.kalk.broker.backend.pojo;
+
+import java.math.BigDecimal;
+
+/**
+ * Summenwerte über eine Gruppe von Positionen (Währung, Vermögenswertkategorie oder Gesamtportfolio)
+ */
+public class PortfolioTotals {
+    private int positionCount;
+    private BigDecimal marketValue = BigDecimal.ZERO;
+    private BigDecimal costBasis = BigDecimal.ZERO;
+    private BigDecimal unrealizedPnL = BigDecimal.ZERO;
+    private BigDecimal realizedPnL = BigDecimal.ZERO;
+    private BigDecimal dividends = BigDecimal.ZERO;
+
+    public PortfolioTotals() {}
+
+    // Getters and Setters
+    public int getPositionCount() {
+        return positionCount;
+    }
+
+    public void setPositionCount(int positionCount) {
+        this.positionCount = positionCount;
+    }
+
+    public BigDecimal getMarketValue() {
+        return marketValue;
+    }
+
+    public void setMarketValue(BigDecimal marketValue) {
+        this.marketValue = marketValue;
+    }
+
+    public BigDecimal getCostBasis() {
+        return costBasis;
+    }
+
+    public void setCostBasis(BigDecimal costBasis) {
+        this.costBasis = costBasis;
+    }
+
+    public BigDecimal getUnrealizedPnL() {
+        return unrealizedPnL;
+    }
+
+    public void setUnrealizedPnL(BigDecimal unrealizedPnL) {
+        this.unrealizedPnL = unrealizedPnL;
+    }
+
+    public BigDecimal getRealizedPnL() {
+        return realizedPnL;
+    }
+
+    public void setRealizedPnL(BigDecimal realizedPnL) {
+        this.realizedPnL = realizedPnL;
+    }
+
+    public BigDecimal getDividends() {
+        return dividends;
+    }
+
+    public void setDividends(BigDecimal dividends) {
+        this.dividends = dividends;
+    }
+
+    @Override
+    public String toString() {
+        return "PortfolioTotals{" +
+                "positionCount=" + positionCount +
+                ", marketValue=" + marketValue +
+                ", unrealizedPnL=" + unrealizedPnL +
+                ", realizedPnL=" + realizedPnL +
+                '}';
+    }
+}
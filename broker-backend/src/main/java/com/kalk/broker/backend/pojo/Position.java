@@ -36,6 +36,22 @@ public class Position {
         this.symbol = symbol;
     }
 
+    /**
+     * Kopiert die Stammdaten einer Position, ohne Transaktionen, Dividenden und Performance
+     */
+    public Position(Position other) {
+        this.symbol = other.symbol;
+        this.assetCategory = other.assetCategory;
+        this.currency = other.currency;
+        this.quantity = other.quantity;
+        this.openingPrice = other.openingPrice;
+        this.costBasis = other.costBasis;
+        this.value = other.value;
+        this.closingPrice = other.closingPrice;
+        this.winLoss = other.winLoss;
+        this.code = other.code;
+    }
+
     // Getters and Setters
     public String getSymbol() {
         return symbol;
@@ -1,18 +1,67 @@
 package com.kalk.broker.backend.pojo;
 
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
+/**
+ * Ein geparster Report. Der Parser befüllt ihn schrittweise; mit {@link #freeze()} wird er zu
+ * einem unveränderlichen Snapshot, der ohne Synchronisation von beliebig vielen Threads gelesen
+ * werden kann. Abgeleitete Daten werden über die Version zugeordnet.
+ */
 public class Report {
 
+    private long version; // fortlaufend je Upload, 0 für leere Reports
+    private String fingerprint; // Version und Hash des Dateiinhalts
+    private String fileName; // Name der hochgeladenen Datei
+    private String workspaceId; // Arbeitsbereich (Sitzung/Client), dem der Report gehört
     private Statement statement;
     private Map<String, SectionData> sections = new HashMap<>();
+    private boolean frozen;
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        checkNotFrozen();
+        this.version = version;
+    }
+
+    public String getFingerprint() {
+        return fingerprint;
+    }
+
+    public void setFingerprint(String fingerprint) {
+        checkNotFrozen();
+        this.fingerprint = fingerprint;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public void setFileName(String fileName) {
+        checkNotFrozen();
+        this.fileName = fileName;
+    }
+
+    public String getWorkspaceId() {
+        return workspaceId;
+    }
+
+    public void setWorkspaceId(String workspaceId) {
+        checkNotFrozen();
+        this.workspaceId = workspaceId;
+    }
 
     public Statement getStatement() {
         return statement;
     }
 
     public void setStatement(Statement statement) {
+        checkNotFrozen();
         this.statement = statement;
     }
 
@@ -21,10 +70,12 @@ public class Report {
     }
 
     public void setSections(Map<String, SectionData> sections) {
+        checkNotFrozen();
         this.sections = sections;
     }
 
     public void addSection(String key, SectionData section) {
+        checkNotFrozen();
         this.sections.put(key, section);
     }
 
@@ -35,4 +86,24 @@ public class Report {
     public boolean hasSection(String key) {
         return this.sections.containsKey(key);
     }
+
+    /**
+     * Macht den Report samt Sektionen unveränderlich; danach schlagen alle Setter fehl
+     *
+     * @return dieser Report
+     */
+    public Report freeze() {
+        if (!frozen) {
+            sections.values().forEach(SectionData::freeze);
+            sections = Collections.unmodifiableMap(new LinkedHashMap<>(sections));
+            frozen = true;
+        }
+        return this;
+    }
+
+    private void checkNotFrozen() {
+        if (frozen) {
+            throw new IllegalStateException("Report " + version + " is an immutable snapshot");
+        }
+    }
 }
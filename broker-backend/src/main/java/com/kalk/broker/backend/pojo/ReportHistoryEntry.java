@@ -0,0 +1,54 @@
+package com.kalk.broker.backend.pojo;
+
+/**
+ * Eine im Verlauf eines Arbeitsbereichs gehaltene Report-Version
+ */
+public class ReportHistoryEntry {
+
+    private long version;
+    private String fingerprint;
+    private String fileName;
+    private boolean active; // die Version, aus der alle Endpunkte gerade lesen
+
+    public ReportHistoryEntry() {}
+
+    public ReportHistoryEntry(long version, String fingerprint, String fileName, boolean active) {
+        this.version = version;
+        this.fingerprint = fingerprint;
+        this.fileName = fileName;
+        this.active = active;
+    }
+
+    // Getters and Setters
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    public String getFingerprint() {
+        return fingerprint;
+    }
+
+    public void setFingerprint(String fingerprint) {
+        this.fingerprint = fingerprint;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public void setFileName(String fileName) {
+        this.fileName = fileName;
+    }
+
+    public boolean isActive() {
+        return active;
+    }
+
+    public void setActive(boolean active) {
+        this.active = active;
+    }
+}
@@ -1,19 +1,25 @@
 package com.kalk.broker.backend.pojo;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * Generische Datenstruktur für CSV-Abschnitte
- * Kann Header und Datenzeilen unabhängig von der Sprache speichern
+ * Kann Header und Datenzeilen unabhängig von der Sprache speichern.
+ * Nach {@link #freeze()} sind Header, Zeilen und Metadaten unveränderlich.
  */
 public class SectionData {
     private String sectionName;
     private List<String> headers = new ArrayList<>();
     private List<Map<String, String>> dataRows = new ArrayList<>();
     private Map<String, String> metadata = new HashMap<>();
+    private boolean frozen;
+    private volatile List<String> columns; // nach freeze() einmal berechnet
 
     public SectionData() {}
 
@@ -26,6 +32,7 @@ public class SectionData {
     }
 
     public void setSectionName(String sectionName) {
+        checkNotFrozen();
         this.sectionName = sectionName;
     }
 
@@ -34,10 +41,12 @@ public class SectionData {
     }
 
     public void setHeaders(List<String> headers) {
+        checkNotFrozen();
         this.headers = headers;
     }
 
     public void addHeader(String header) {
+        checkNotFrozen();
         this.headers.add(header);
     }
 
@@ -46,10 +55,12 @@ public class SectionData {
     }
 
     public void setDataRows(List<Map<String, String>> dataRows) {
+        checkNotFrozen();
         this.dataRows = dataRows;
     }
 
     public void addDataRow(Map<String, String> row) {
+        checkNotFrozen();
         this.dataRows.add(row);
     }
 
@@ -58,13 +69,76 @@ public class SectionData {
     }
 
     public void setMetadata(Map<String, String> metadata) {
+        checkNotFrozen();
         this.metadata = metadata;
     }
 
     public void addMetadata(String key, String value) {
+        checkNotFrozen();
         this.metadata.put(key, value);
     }
 
+    /**
+     * Alle Spalten der Sektion: die Header, gefolgt von weiteren Schlüsseln der Zeilen
+     * (z.B. {@code _record_type} oder Spalten späterer Header-Records) in der Reihenfolge ihres Auftretens.
+     * Nach {@link #freeze()} werden die Zeilen nur beim ersten Aufruf durchlaufen.
+     *
+     * @return unveränderliche Liste der Spaltennamen
+     */
+    public List<String> columns() {
+        List<String> result = columns;
+        if (result == null) {
+            Set<String> names = new LinkedHashSet<>(headers);
+            for (Map<String, String> row : dataRows) {
+                names.addAll(row.keySet());
+            }
+            result = List.copyOf(names);
+            if (frozen) {
+                columns = result;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Ersetzt Header, Zeilen und Metadaten durch unveränderliche Sichten
+     * (Reihenfolge bleibt erhalten, die Zeilen selbst werden nicht kopiert)
+     *
+     * @return diese Sektion
+     */
+    public SectionData freeze() {
+        return freeze(true);
+    }
+
+    /**
+     * Wie {@link #freeze()}, kapselt die Zeilen aber nicht einzeln; nur für Zeilen, die selbst
+     * unveränderlich sind (z.B. Sichten auf einen gespeicherten Snapshot)
+     */
+    public SectionData freezeWithImmutableRows() {
+        return freeze(false);
+    }
+
+    private SectionData freeze(boolean wrapRows) {
+        if (frozen) {
+            return this;
+        }
+        List<Map<String, String>> rows = new ArrayList<>(dataRows.size());
+        for (Map<String, String> row : dataRows) {
+            rows.add(wrapRows ? Collections.unmodifiableMap(row) : row);
+        }
+        headers = Collections.unmodifiableList(new ArrayList<>(headers));
+        dataRows = Collections.unmodifiableList(rows);
+        metadata = Collections.unmodifiableMap(metadata);
+        frozen = true;
+        return this;
+    }
+
+    private void checkNotFrozen() {
+        if (frozen) {
+            throw new IllegalStateException("Section " + sectionName + " is an immutable snapshot");
+        }
+    }
+
     @Override
     public String toString() {
         return "SectionData{" +
@@ -0,0 +1,92 @@
+package com.kalk.broker.backend.pojo;
+
+import java.time.LocalDateTime;
+
+/**
+ * Filterkriterien für Transaktionsabfragen. Nicht gesetzte Kriterien ({@code null}) filtern nicht.
+ * Der Zeitraum ist halboffen: {@code from} inklusive, {@code to} exklusive.
+ */
+public class TransactionFilter {
+
+    private LocalDateTime from;
+    private LocalDateTime to;
+    private String symbol;
+    private String currency;
+    private String assetCategory;
+    private String code; // einzelnes Code-Kürzel, z.B. "O", "C" oder "Ep"
+
+    public TransactionFilter() {}
+
+    public TransactionFilter(LocalDateTime from, LocalDateTime to) {
+        this.from = from;
+        this.to = to;
+    }
+
+    // Getters and Setters
+    public LocalDateTime getFrom() {
+        return from;
+    }
+
+    public void setFrom(LocalDateTime from) {
+        this.from = from;
+    }
+
+    public LocalDateTime getTo() {
+        return to;
+    }
+
+    public void setTo(LocalDateTime to) {
+        this.to = to;
+    }
+
+    public String getSymbol() {
+        return symbol;
+    }
+
+    public void setSymbol(String symbol) {
+        this.symbol = symbol;
+    }
+
+    public String getCurrency() {
+        return currency;
+    }
+
+    public void setCurrency(String currency) {
+        this.currency = currency;
+    }
+
+    public String getAssetCategory() {
+        return assetCategory;
+    }
+
+    public void setAssetCategory(String assetCategory) {
+        this.assetCategory = assetCategory;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public void setCode(String code) {
+        this.code = code;
+    }
+
+    /**
+     * @return {@code true}, wenn kein Kriterium gesetzt ist
+     */
+    public boolean isEmpty() {
+        return from == null && to == null && symbol == null && currency == null && assetCategory == null && code == null;
+    }
+
+    @Override
+    public String toString() {
+        return "TransactionFilter{" +
+                "from=" + from +
+                ", to=" + to +
+                ", symbol='" + symbol + '\'' +
+                ", currency='" + currency + '\'' +
+                ", assetCategory='" + assetCategory + '\'' +
+                ", code='" + code + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,98 @@
+package com.kalk.broker.backend.pojo;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Status eines asynchronen Uploads.
+ * Ablauf: QUEUED → PARSING → AVAILABLE (Sektionen abrufbar, abgeleitete Daten werden vorberechnet)
+ * → COMPLETED, bei Fehlern FAILED. Scheitert nur die Vorberechnung, endet der Job mit COMPLETED
+ * und {@code precomputeError}; der Report ist dann trotzdem abrufbar.
+ */
+public class UploadJob {
+
+    public enum Status {
+        QUEUED, PARSING, AVAILABLE, COMPLETED, FAILED;
+
+        public boolean isFinished() {
+            return this == COMPLETED || this == FAILED;
+        }
+    }
+
+    private final String id;
+    private final String fileName;
+    private final String workspaceId;
+    private final LocalDateTime createdAt = LocalDateTime.now();
+    private volatile Status status = Status.QUEUED;
+    private volatile long version; // Report-Version, sobald der Report verfügbar ist
+    private volatile List<String> sectionNames = List.of();
+    private volatile String message;
+    private volatile String precomputeError; // null, solange die Vorberechnung nicht fehlgeschlagen ist
+
+    public UploadJob(String id, String fileName, String workspaceId) {
+        this.id = id;
+        this.fileName = fileName;
+        this.workspaceId = workspaceId;
+    }
+
+    // Getters and Setters
+    public String getId() {
+        return id;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public String getWorkspaceId() {
+        return workspaceId;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    public List<String> getSectionNames() {
+        return sectionNames;
+    }
+
+    public void setSectionNames(List<String> sectionNames) {
+        this.sectionNames = sectionNames;
+    }
+
+    public int getSectionCount() {
+        return sectionNames.size();
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+
+    public String getPrecomputeError() {
+        return precomputeError;
+    }
+
+    public void setPrecomputeError(String precomputeError) {
+        this.precomputeError = precomputeError;
+    }
+}
@@ -0,0 +1,133 @@
+package com.kalk.broker.backend.service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import com.kalk.broker.backend.config.ExecutorConfiguration;
+import com.kalk.broker.backend.pojo.Dashboard;
+import com.kalk.broker.backend.pojo.Portfolio;
+import com.kalk.broker.backend.pojo.Report;
+import com.kalk.broker.backend.pojo.SymbolTransactions;
+import com.kalk.broker.backend.pojo.TaxRelevantData;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+
+/**
+ * Service für den zusammengesetzten Dashboard-Endpunkt.
+ * <p>
+ * Die angeforderten Ansichten laufen nebenläufig auf dem View-Executor. Gemeinsame Eingaben
+ * (Transaktionen, Portfolio, Steuerdaten) werden über {@link Inputs} pro Anfrage genau einmal
+ * berechnet: der erste Aufrufer rechnet, alle weiteren warten auf dessen Ergebnis. Der View-Executor
+ * ist bewusst getrennt vom Stage-Executor, da die Portfolio-Berechnung selbst auf dessen Stufen wartet.
+ */
+@Service
+public class DashboardService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DashboardService.class);
+
+    private final TransactionDataService transactionDataService;
+    private final PortfolioDataService portfolioDataService;
+    private final TaxDataService taxDataService;
+    private final ExecutorService executor;
+
+    public DashboardService(TransactionDataService transactionDataService, PortfolioDataService portfolioDataService,
+                            TaxDataService taxDataService,
+                            @Qualifier(ExecutorConfiguration.REPORT_VIEW_EXECUTOR) ExecutorService executor) {
+        this.transactionDataService = transactionDataService;
+        this.portfolioDataService = portfolioDataService;
+        this.taxDataService = taxDataService;
+        this.executor = executor;
+    }
+
+    /**
+     * Berechnet die Ansichten nebenläufig und sammelt sie in der angefragten Reihenfolge
+     *
+     * @param report der aktuelle Report
+     * @param views Ansichtsname → Berechnung auf Basis der gemeinsamen Eingaben
+     * @return das Dashboard mit allen erfolgreich berechneten Ansichten und den Fehlern der übrigen
+     */
+    public Dashboard compose(Report report, Map<String, Function<Inputs, ?>> views) {
+        Inputs inputs = new Inputs(report);
+        Map<String, CompletableFuture<?>> futures = new LinkedHashMap<>();
+        views.forEach((name, view) -> futures.put(name, CompletableFuture.supplyAsync(() -> view.apply(inputs), executor)));
+
+        Dashboard dashboard = new Dashboard(true, report.getVersion());
+        futures.forEach((name, future) -> {
+            try {
+                dashboard.getViews().put(name, await(future));
+            } catch (RuntimeException e) {
+                logger.warn("Dashboard view {} failed: {}", name, e.getMessage());
+                dashboard.getErrors().put(name, e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName());
+            }
+        });
+        return dashboard;
+    }
+
+    private static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Gemeinsame Eingaben der Ansichten einer Dashboard-Anfrage, jeweils einmal berechnet
+     */
+    public final class Inputs {
+
+        private final Report report;
+        private final Map<String, CompletableFuture<Object>> values = new ConcurrentHashMap<>();
+
+        private Inputs(Report report) {
+            this.report = report;
+        }
+
+        public Report getReport() {
+            return report;
+        }
+
+        public List<SymbolTransactions> transactions() {
+            return shared("transactions", () -> transactionDataService.processTransactions(report));
+        }
+
+        public Portfolio portfolio() {
+            // liest die Transaktionen selbst aus dem ReportCache, ein paralleles transactions() rechnet nicht doppelt
+            return shared("portfolio", () -> portfolioDataService.createPortfolio(report));
+        }
+
+        public TaxRelevantData taxData(int taxYear) {
+            return shared("tax-data." + taxYear, () -> taxDataService.extractTaxRelevantData(report, taxYear));
+        }
+
+        @SuppressWarnings("unchecked")
+        private <T> T shared(String name, Supplier<T> supplier) {
+            CompletableFuture<Object> created = new CompletableFuture<>();
+            CompletableFuture<Object> existing = values.putIfAbsent(name, created);
+            if (existing != null) {
+                return (T) await(existing);
+            }
+            try {
+                T value = supplier.get();
+                created.complete(value);
+                return value;
+            } catch (RuntimeException e) {
+                created.completeExceptionally(e);
+                throw e;
+            }
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.kalk.broker.backend.service;
+
+import java.math.BigDecimal;
+import java.util.Objects;
+
+import com.kalk.broker.backend.pojo.Transaction;
+
+/**
+ * Laufender Bestand einer Position nach der Durchschnittskostenmethode.
+ * Wird beim Nachspielen von Transaktionen (Bestandshistorie, Positions-Ledger) verwendet.
+ */
+final class HoldingState {
+
+    private double quantity;
+    private double costBasis;
+    private double realizedPnL;
+    private double dividends;
+
+    HoldingState copy() {
+        HoldingState copy = new HoldingState();
+        copy.quantity = quantity;
+        copy.costBasis = costBasis;
+        copy.realizedPnL = realizedPnL;
+        copy.dividends = dividends;
+        return copy;
+    }
+
+    void apply(Transaction transaction) {
+        double tradeQuantity = transaction.getQuantity().doubleValue();
+        applyFill(tradeQuantity, tradeCost(transaction, tradeQuantity));
+    }
+
+    /**
+     * Verbucht eine Ausführung
+     *
+     * @param tradeQuantity gehandelte Menge (negativ bei Verkauf)
+     * @param tradeCost Kosten inkl. Gebühren (negativ bei Zufluss)
+     */
+    void applyFill(double tradeQuantity, double tradeCost) {
+        if (tradeQuantity == 0) {
+            return;
+        }
+
+        if (quantity == 0 || Math.signum(quantity) == Math.signum(tradeQuantity)) {
+            // Eröffnung oder Aufstockung
+            costBasis += tradeCost;
+            quantity += tradeQuantity;
+            return;
+        }
+
+        // (Teil-)Schließung, ggf. mit Umkehr der Position
+        double closedQuantity = Math.min(Math.abs(tradeQuantity), Math.abs(quantity));
+        double closedFraction = closedQuantity / Math.abs(tradeQuantity);
+        double closedCost = costBasis * closedQuantity / Math.abs(quantity);
+        realizedPnL += -tradeCost * closedFraction - closedCost;
+        costBasis -= closedCost;
+        quantity += tradeQuantity;
+        if (closedFraction < 1) {
+            costBasis = tradeCost * (1 - closedFraction);
+        } else if (quantity == 0) {
+            costBasis = 0;
+        }
+    }
+
+    void applyDividend(double amount) {
+        dividends += amount;
+    }
+
+    double getQuantity() {
+        return quantity;
+    }
+
+    double getCostBasis() {
+        return costBasis;
+    }
+
+    double getRealizedPnL() {
+        return realizedPnL;
+    }
+
+    double getDividends() {
+        return dividends;
+    }
+
+    static double tradeCost(Transaction transaction, double tradeQuantity) {
+        BigDecimal proceeds = transaction.getProceeds();
+        double cost;
+        if (proceeds != null) {
+            cost = -proceeds.doubleValue();
+        } else {
+            cost = transaction.getPrice() != null ? tradeQuantity * transaction.getPrice().doubleValue() : 0;
+        }
+        return cost - (Objects.nonNull(transaction.getFees()) ? transaction.getFees().doubleValue() : 0);
+    }
+}
@@ -0,0 +1,193 @@
+package com.kalk.broker.backend.service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import com.kalk.broker.backend.cache.ReportCache;
+import com.kalk.broker.backend.pojo.HoldingsHistory;
+import com.kalk.broker.backend.pojo.Report;
+import com.kalk.broker.backend.pojo.SymbolTransactions;
+import com.kalk.broker.backend.pojo.Transaction;
+import com.kalk.broker.backend.utils.ReportUtils;
+import org.springframework.stereotype.Service;
+
+/**
+ * Service for reconstructing the daily holdings of a report from its transactions.
+ * The transactions of every asset are replayed in chronological order and the end-of-day
+ * quantity and cost basis (average cost method) are stored as primitive columns in a
+ * {@link HoldingsHistory}, which can then be sliced to arbitrary date ranges.
+ * The full history is cached per report version; a series ends with the last day the asset was held.
+ */
+@Service
+public class HoldingsHistoryService {
+
+    private final TransactionDataService transactionDataService;
+    private final ReportCache reportCache;
+
+    public HoldingsHistoryService(TransactionDataService transactionDataService, ReportCache reportCache) {
+        this.transactionDataService = transactionDataService;
+        this.reportCache = reportCache;
+    }
+
+    /**
+     * Replays all transactions of the given report into a daily holdings history.
+     * The history starts at the first transaction and ends at the report date
+     * (or the last transaction if that is later).
+     *
+     * @param report the report containing transaction data
+     * @return the daily holdings history, empty if the report contains no dated transactions
+     */
+    public HoldingsHistory createHoldingsHistory(Report report) {
+        List<List<Transaction>> transactionsByAsset = new ArrayList<>();
+        LocalDate startDate = null;
+        LocalDate endDate = null;
+
+        for (SymbolTransactions symbolTransactions : transactionDataService.processTransactions(report)) {
+            List<Transaction> transactions = symbolTransactions.getTransactions().stream()
+                    .filter(t -> t.getAsset() != null && t.getDateTime() != null && t.getQuantity() != null)
+                    .sorted(Comparator.comparing(Transaction::getDateTime))
+                    .toList();
+            if (transactions.isEmpty()) {
+                continue;
+            }
+            transactionsByAsset.add(transactions);
+
+            LocalDate first = transactions.get(0).getDateTime().toLocalDate();
+            LocalDate last = transactions.get(transactions.size() - 1).getDateTime().toLocalDate();
+            startDate = startDate == null || first.isBefore(startDate) ? first : startDate;
+            endDate = endDate == null || last.isAfter(endDate) ? last : endDate;
+        }
+
+        if (startDate == null) {
+            return new HoldingsHistory();
+        }
+
+        if (report.hasSection("statement")) {
+            LocalDate reportDate = ReportUtils.getReportDate(report).toLocalDate();
+            endDate = reportDate.isAfter(endDate) ? reportDate : endDate;
+        }
+
+        HoldingsHistory history = new HoldingsHistory(startDate, endDate);
+        long startDay = startDate.toEpochDay();
+        int days = (int) (endDate.toEpochDay() - startDay) + 1;
+
+        for (List<Transaction> transactions : transactionsByAsset) {
+            history.addSeries(replay(transactions, startDay, days));
+        }
+
+        return history;
+    }
+
+    /**
+     * Returns the holdings history of the given report restricted to a date range.
+     *
+     * @param report the report containing transaction data
+     * @param from first day to include, or {@code null} for the start of the history
+     * @param to last day to include, or {@code null} for the end of the history
+     * @return the sliced holdings history; series without days in the range are omitted
+     */
+    public HoldingsHistory getHoldingsHistory(Report report, LocalDate from, LocalDate to) {
+        return slice(reportCache.get(report, "holdings.history", () -> createHoldingsHistory(report),
+                HoldingsHistoryService::countDays), from, to);
+    }
+
+    /**
+     * Tage aller Reihen als Maß für die Größe des Verlaufs
+     */
+    private static long countDays(HoldingsHistory history) {
+        long days = 0;
+        for (HoldingsHistory.Series series : history.getSeries()) {
+            days += series.getQuantity().length;
+        }
+        return days;
+    }
+
+    private HoldingsHistory slice(HoldingsHistory history, LocalDate from, LocalDate to) {
+        if (history.getStartDate() == null || (from == null && to == null)) {
+            return history;
+        }
+
+        LocalDate start = from == null || from.isBefore(history.getStartDate()) ? history.getStartDate() : from;
+        LocalDate end = to == null || to.isAfter(history.getEndDate()) ? history.getEndDate() : to;
+        HoldingsHistory slice = new HoldingsHistory(start, end);
+        if (start.isAfter(end)) {
+            return slice;
+        }
+
+        int first = (int) (start.toEpochDay() - history.getStartDate().toEpochDay());
+        int last = (int) (end.toEpochDay() - history.getStartDate().toEpochDay());
+
+        for (HoldingsHistory.Series series : history.getSeries()) {
+            int from0 = Math.max(first, series.getOffset());
+            int to0 = Math.min(last, series.getOffset() + series.getLength() - 1);
+            if (from0 > to0) {
+                continue;
+            }
+
+            int begin = from0 - series.getOffset();
+            int length = to0 - from0 + 1;
+            HoldingsHistory.Series sliced = new HoldingsHistory.Series(series.getAssetKey(), series.getSymbol(),
+                    from0 - first,
+                    Arrays.copyOfRange(series.getQuantity(), begin, begin + length),
+                    Arrays.copyOfRange(series.getCostBasis(), begin, begin + length));
+            sliced.setAssetCategory(series.getAssetCategory());
+            sliced.setCurrency(series.getCurrency());
+            slice.addSeries(sliced);
+        }
+
+        return slice;
+    }
+
+    /**
+     * Replays the transactions of one asset. Days are only materialized up to the last transaction:
+     * an open position is then carried forward to the end of the history, a closed one ends with
+     * its last day of non-zero quantity (expired options must not carry years of zeros).
+     */
+    private HoldingsHistory.Series replay(List<Transaction> transactions, long startDay, int days) {
+        Transaction firstTransaction = transactions.get(0);
+        int offset = (int) (epochDay(firstTransaction.getDateTime()) - startDay);
+        int replayDays = (int) (epochDay(transactions.get(transactions.size() - 1).getDateTime()) - startDay) - offset + 1;
+        double[] quantity = new double[replayDays];
+        double[] costBasis = new double[replayDays];
+
+        HoldingState holding = new HoldingState();
+        int index = 0;
+        for (int day = 0; day < replayDays; day++) {
+            long epochDay = startDay + offset + day;
+            while (index < transactions.size() && epochDay(transactions.get(index).getDateTime()) <= epochDay) {
+                holding.apply(transactions.get(index++));
+            }
+            quantity[day] = holding.getQuantity();
+            costBasis[day] = holding.getCostBasis();
+        }
+
+        if (holding.getQuantity() != 0) {
+            int length = days - offset;
+            quantity = Arrays.copyOf(quantity, length);
+            costBasis = Arrays.copyOf(costBasis, length);
+            Arrays.fill(quantity, replayDays, length, holding.getQuantity());
+            Arrays.fill(costBasis, replayDays, length, holding.getCostBasis());
+        } else {
+            int length = replayDays;
+            while (length > 1 && quantity[length - 1] == 0) {
+                length--;
+            }
+            quantity = Arrays.copyOf(quantity, length);
+            costBasis = Arrays.copyOf(costBasis, length);
+        }
+
+        HoldingsHistory.Series series = new HoldingsHistory.Series(firstTransaction.getAsset().getKey(),
+                firstTransaction.getAsset().getSymbol(), offset, quantity, costBasis);
+        series.setAssetCategory(firstTransaction.getAsset().getCategory());
+        series.setCurrency(firstTransaction.getCurrency());
+        return series;
+    }
+
+    private static long epochDay(LocalDateTime dateTime) {
+        return dateTime.toLocalDate().toEpochDay();
+    }
+}
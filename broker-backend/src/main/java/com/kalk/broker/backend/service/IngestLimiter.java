@@ -0,0 +1,115 @@
+package com.kalk.broker.backend.service;
+
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.kalk.broker.backend.config.AppConstants;
+import com.kalk.broker.backend.config.ExecutorConfiguration;
+import com.kalk.broker.backend.exception.UploadRejectedException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Begrenzt die gleichzeitige Verarbeitung von Uploads.
+ * <p>
+ * Jeder Upload reserviert vor dem Lesen des Request-Bodys einen geschätzten Speicherbedarf
+ * ({@code Content-Length} × Faktor für CSV-Datensätze und Sektionen). Ist die Warteschlange des
+ * Ingest-Executors voll, wird mit 429 abgelehnt, ist das Speicherbudget erschöpft, mit 503.
+ * Die Reservierung gilt bis zum Ende des Parsens.
+ */
+@Component
+public class IngestLimiter {
+
+    private static final Logger logger = LoggerFactory.getLogger(IngestLimiter.class);
+
+    private final ThreadPoolExecutor ingestExecutor;
+    private final long budgetBytes;
+    private final int memoryFactor;
+    private final long unknownLengthBytes;
+    private final long retryAfterSeconds;
+    private final AtomicLong reservedBytes = new AtomicLong();
+
+    public IngestLimiter(@Qualifier(ExecutorConfiguration.REPORT_INGEST_EXECUTOR) ThreadPoolExecutor ingestExecutor,
+                         @Value("${broker.ingest.memory-budget:512MB}") DataSize budget,
+                         @Value("${broker.ingest.memory-factor:8}") int memoryFactor,
+                         @Value("${spring.servlet.multipart.max-request-size:10MB}") DataSize maxRequestSize,
+                         @Value("${broker.ingest.retry-after:5}") long retryAfterSeconds) {
+        this.ingestExecutor = ingestExecutor;
+        this.budgetBytes = budget.toBytes();
+        this.memoryFactor = memoryFactor;
+        this.unknownLengthBytes = maxRequestSize.toBytes();
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    /**
+     * Reserviert Speicher für einen Upload oder lehnt ihn sofort ab
+     *
+     * @param contentLength Länge des Request-Bodys, -1 wenn unbekannt (dann gilt die maximale Request-Größe)
+     * @return die Reservierung, die nach dem Parsen freigegeben werden muss
+     * @throws UploadRejectedException wenn Warteschlange oder Speicherbudget erschöpft sind
+     */
+    public Reservation reserve(long contentLength) {
+        if (ingestExecutor.getQueue().remainingCapacity() == 0) {
+            throw queueFull();
+        }
+
+        long estimate = (contentLength >= 0 ? contentLength : unknownLengthBytes) * memoryFactor;
+        long reserved;
+        do {
+            reserved = reservedBytes.get();
+            // ein einzelner Upload darf das Budget allein ausschöpfen, sonst wäre er nie möglich
+            if (reserved > 0 && reserved + estimate > budgetBytes) {
+                logger.warn("Ingest budget exhausted: {} of {} bytes reserved, {} requested", reserved, budgetBytes, estimate);
+                throw new UploadRejectedException(AppConstants.ErrorMessages.INGEST_BUDGET_EXCEEDED,
+                        HttpStatus.SERVICE_UNAVAILABLE, retryAfterSeconds);
+            }
+        } while (!reservedBytes.compareAndSet(reserved, reserved + estimate));
+        return new Reservation(estimate);
+    }
+
+    UploadRejectedException queueFull() {
+        return new UploadRejectedException(AppConstants.ErrorMessages.UPLOAD_QUEUE_FULL,
+                HttpStatus.TOO_MANY_REQUESTS, retryAfterSeconds);
+    }
+
+    public long getReservedBytes() {
+        return reservedBytes.get();
+    }
+
+    /**
+     * Reservierter Speicher eines Uploads; die Freigabe ist idempotent
+     */
+    public final class Reservation {
+
+        private final long bytes;
+        private final AtomicBoolean released = new AtomicBoolean();
+        private final AtomicBoolean handedOver = new AtomicBoolean();
+
+        private Reservation(long bytes) {
+            this.bytes = bytes;
+        }
+
+        /**
+         * Übergibt die Reservierung an den Upload-Job, der sie nach dem Parsen freigibt
+         */
+        void handOver() {
+            handedOver.set(true);
+        }
+
+        public boolean isHandedOver() {
+            return handedOver.get();
+        }
+
+        public void release() {
+            if (released.compareAndSet(false, true)) {
+                reservedBytes.addAndGet(-bytes);
+            }
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.kalk.broker.backend.service;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Objects;
+
+import com.kalk.broker.backend.pojo.Dividend;
+import com.kalk.broker.backend.pojo.PortfolioAggregates;
+import com.kalk.broker.backend.pojo.PortfolioTotals;
+import com.kalk.broker.backend.pojo.Position;
+import org.springframework.stereotype.Service;
+
+/**
+ * Service for aggregating portfolio positions.
+ * Computes totals per currency, per asset category and for the whole portfolio in a single
+ * pass over the positions, optionally converting category and overall totals to the base currency.
+ */
+@Service
+public class PortfolioAggregationService {
+
+    private static final String UNKNOWN = "Unknown";
+
+    /**
+     * Aggregates the given positions.
+     *
+     * @param positions the positions to aggregate
+     * @param baseCurrency the base currency of the portfolio
+     * @param exchangeRates value of one unit of a currency in the base currency; if {@code null},
+     *                      category and overall totals are summed without conversion
+     * @return the aggregated totals
+     */
+    public PortfolioAggregates aggregate(Collection<Position> positions, String baseCurrency,
+                                         Map<String, BigDecimal> exchangeRates) {
+        PortfolioAggregates aggregates = new PortfolioAggregates(baseCurrency);
+        boolean converted = exchangeRates != null;
+
+        for (Position position : positions) {
+            String currency = Objects.requireNonNullElse(position.getCurrency(), UNKNOWN);
+            String category = Objects.requireNonNullElse(position.getAssetCategory(), UNKNOWN);
+
+            BigDecimal rate = BigDecimal.ONE;
+            if (exchangeRates != null && !currency.equals(baseCurrency)) {
+                rate = exchangeRates.get(currency);
+                if (rate == null) {
+                    rate = BigDecimal.ONE;
+                    converted = false;
+                }
+            }
+
+            BigDecimal marketValue = valueOrZero(position.getValue());
+            BigDecimal costBasis = valueOrZero(position.getCostBasis());
+            BigDecimal unrealizedPnL = valueOrZero(position.getWinLoss());
+            BigDecimal realizedPnL = position.getPerformance() != null
+                    ? valueOrZero(position.getPerformance().getRealizedPnL())
+                    : BigDecimal.ZERO;
+            BigDecimal dividends = BigDecimal.ZERO;
+            for (Dividend dividend : position.getDividends()) {
+                BigDecimal amount = dividend.getNetAmount() != null ? dividend.getNetAmount() : dividend.getAmount();
+                if (amount != null) {
+                    dividends = dividends.add(amount);
+                }
+            }
+
+            add(aggregates.getByCurrency().computeIfAbsent(currency, k -> new PortfolioTotals()),
+                    BigDecimal.ONE, marketValue, costBasis, unrealizedPnL, realizedPnL, dividends);
+            add(aggregates.getByAssetCategory().computeIfAbsent(category, k -> new PortfolioTotals()),
+                    rate, marketValue, costBasis, unrealizedPnL, realizedPnL, dividends);
+            add(aggregates.getTotal(), rate, marketValue, costBasis, unrealizedPnL, realizedPnL, dividends);
+        }
+
+        aggregates.setConverted(converted);
+        return aggregates;
+    }
+
+    private void add(PortfolioTotals totals, BigDecimal rate, BigDecimal marketValue, BigDecimal costBasis,
+                     BigDecimal unrealizedPnL, BigDecimal realizedPnL, BigDecimal dividends) {
+        totals.setPositionCount(totals.getPositionCount() + 1);
+        totals.setMarketValue(totals.getMarketValue().add(marketValue.multiply(rate)));
+        totals.setCostBasis(totals.getCostBasis().add(costBasis.multiply(rate)));
+        totals.setUnrealizedPnL(totals.getUnrealizedPnL().add(unrealizedPnL.multiply(rate)));
+        totals.setRealizedPnL(totals.getRealizedPnL().add(realizedPnL.multiply(rate)));
+        totals.setDividends(totals.getDividends().add(dividends.multiply(rate)));
+    }
+
+    private BigDecimal valueOrZero(BigDecimal value) {
+        return value != null ? value : BigDecimal.ZERO;
+    }
+}
@@ -11,68 +11,172 @@ import static com.kalk.broker.backend.config.ReportField.SYMBOL;
 import static com.kalk.broker.backend.config.ReportField.UNREALIZED_PNL;
 import static com.kalk.broker.backend.config.ReportField.VALUE;
 
-import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Supplier;
 
+import com.kalk.broker.backend.cache.ReportCache;
+import com.kalk.broker.backend.config.ExecutorConfiguration;
 import com.kalk.broker.backend.pojo.Dividend;
 import com.kalk.broker.backend.pojo.PerformanceData;
 import com.kalk.broker.backend.pojo.Portfolio;
+import com.kalk.broker.backend.pojo.PortfolioAggregates;
+import com.kalk.broker.backend.pojo.PortfolioTotals;
 import com.kalk.broker.backend.pojo.Position;
 import com.kalk.broker.backend.pojo.Report;
 import com.kalk.broker.backend.pojo.SectionData;
 import com.kalk.broker.backend.pojo.SymbolTransactions;
 import com.kalk.broker.backend.utils.ReportUtils;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 
 /**
  * Service für die Verarbeitung von Portfolio-Daten
- * Kombiniert offene Positionen, Transaktionen, Performance-Daten und Dividenden
+ * Kombiniert offene Positionen, Transaktionen, Performance-Daten und Dividenden.
+ * Die voneinander unabhängigen Stufen laufen parallel und werden je Report-Version gecacht,
+ * erst das Zusammenführen und die Aggregation erfolgen sequentiell.
  */
 @Service
 public class PortfolioDataService {
 
     private final TransactionDataService transcationDataService;
-
-    public PortfolioDataService(TransactionDataService transcationDataService) {
+    private final PositionLedgerService positionLedgerService;
+    private final ReturnCalculationService returnCalculationService;
+    private final PortfolioAggregationService portfolioAggregationService;
+    private final ReportCache reportCache;
+    private final ExecutorService stageExecutor;
+
+    public PortfolioDataService(TransactionDataService transcationDataService,
+                                PositionLedgerService positionLedgerService,
+                                ReturnCalculationService returnCalculationService,
+                                PortfolioAggregationService portfolioAggregationService,
+                                ReportCache reportCache,
+                                @Qualifier(ExecutorConfiguration.REPORT_STAGE_EXECUTOR) ExecutorService stageExecutor) {
         this.transcationDataService = transcationDataService;
+        this.positionLedgerService = positionLedgerService;
+        this.returnCalculationService = returnCalculationService;
+        this.portfolioAggregationService = portfolioAggregationService;
+        this.reportCache = reportCache;
+        this.stageExecutor = stageExecutor;
     }
 
     /**
-     * Erstellt ein Portfolio aus den Report-Daten
+     * Erstellt ein Portfolio aus den Report-Daten.
+     * Das Ergebnis wird je Report-Version gecacht und darf nicht verändert werden.
      */
     public Portfolio createPortfolio(Report report) {
+        return reportCache.get(report, "portfolio", () -> buildPortfolio(report), PortfolioDataService::countElements);
+    }
+
+    /**
+     * Eigene Elemente eines Portfolios; die Transaktionen der Positionen gehören zum Transaktions-Eintrag
+     */
+    private static long countElements(Portfolio portfolio) {
+        long count = portfolio.getPositions().size();
+        for (Position position : portfolio.getPositions()) {
+            count += position.getDividends() != null ? position.getDividends().size() : 0;
+        }
+        return count;
+    }
+
+    private Portfolio buildPortfolio(Report report) {
+        // Unabhängige Stufen parallel starten
+        CompletableFuture<Map<String, Position>> openPositions =
+                stage(report, "portfolio.positions", () -> processOpenPositions(report));
+        CompletableFuture<List<SymbolTransactions>> transactions =
+                CompletableFuture.supplyAsync(() -> transcationDataService.processTransactions(report), stageExecutor);
+        CompletableFuture<Map<String, PerformanceData>> performanceRows =
+                stage(report, "portfolio.performance", () -> processPerformanceData(report));
+        CompletableFuture<Map<String, List<Dividend>>> dividends =
+                stage(report, "portfolio.dividends", () -> processDividends(report));
+        // Der Ledger baut auf den (gecachten) Transaktionen auf
+        CompletableFuture<Void> ledger =
+                transactions.thenRunAsync(() -> positionLedgerService.getEvents(report), stageExecutor);
+
         Portfolio portfolio = new Portfolio();
 
         // Basis-Informationen setzen
         portfolio.setReportDate(ReportUtils.getReportDate(report));
         portfolio.setBaseCurrency(ReportUtils.getBaseCurrency(report));
 
-        // Offene Positionen verarbeiten
-        Map<String, Position> positionsMap = processOpenPositions(report);
+        // Offene Positionen übernehmen (Kopien, die gecachten Stufen bleiben unverändert)
+        Map<String, Position> positionsMap = new HashMap<>();
+        await(openPositions).forEach((symbol, position) -> positionsMap.put(symbol, new Position(position)));
 
         // Transaktionen hinzufügen
-        List<SymbolTransactions> transactionsList = transcationDataService.processTransactions(report);
-        processTransactions(positionsMap, transactionsList);
+        processTransactions(positionsMap, await(transactions));
 
         // Performance-Daten hinzufügen
-        addPerformanceData(report, positionsMap);
+        await(performanceRows).forEach((symbol, performance) -> {
+            Position position = positionsMap.get(symbol);
+            if (position != null) {
+                position.setPerformance(new PerformanceData(performance));
+            }
+        });
 
         // Dividenden hinzufügen
-        addDividends(report, positionsMap);
+        await(dividends).forEach((symbol, symbolDividends) -> {
+            Position position = positionsMap.get(symbol);
+            if (position != null) {
+                position.setDividends(new ArrayList<>(symbolDividends));
+            }
+        });
+
+        // Zeit- und geldgewichtete Renditen berechnen
+        await(ledger);
+        portfolio.setPerformance(returnCalculationService.calculateReturns(report, positionsMap));
 
-        // Portfolio-Totale berechnen
-        calculatePortfolioTotals(portfolio, positionsMap);
+        // Portfolio-Totale je Währung, Kategorie und gesamt in einem Durchlauf berechnen
+        PortfolioAggregates aggregates = portfolioAggregationService.aggregate(positionsMap.values(),
+                portfolio.getBaseCurrency(), ReportUtils.getExchangeRates(report));
+        applyTotals(portfolio, aggregates);
 
         portfolio.setPositions(new ArrayList<>(positionsMap.values()));
 
         return portfolio;
     }
 
+    /**
+     * Liefert eine Position des Portfolios über einen je Report-Version gecachten Symbol-Index
+     *
+     * @param report das Report-Objekt
+     * @param symbol das Symbol der Position
+     * @return die Position oder leer, wenn es keine offene Position zu dem Symbol gibt
+     */
+    public Optional<Position> getPosition(Report report, String symbol) {
+        return Optional.ofNullable(reportCache.get(report, "portfolio.bySymbol", () -> indexPositions(report)).get(symbol));
+    }
+
+    private Map<String, Position> indexPositions(Report report) {
+        Map<String, Position> index = new HashMap<>();
+        for (Position position : createPortfolio(report).getPositions()) {
+            index.putIfAbsent(position.getSymbol(), position);
+        }
+        return index;
+    }
+
+    /**
+     * Erstellt die Portfolio-Summen je Währung, Vermögenswertkategorie und gesamt
+     *
+     * @param report das Report-Objekt
+     * @param convertToBaseCurrency ob Kategorie- und Gesamtsummen in die Basiswährung umgerechnet werden
+     * @return die aggregierten Summen
+     */
+    public PortfolioAggregates createAggregates(Report report, boolean convertToBaseCurrency) {
+        Portfolio portfolio = createPortfolio(report);
+        if (convertToBaseCurrency) {
+            return portfolio.getAggregates();
+        }
+        return portfolioAggregationService.aggregate(portfolio.getPositions(), portfolio.getBaseCurrency(), null);
+    }
+
     /**
      * Verarbeitet die Sektion "offene_positionen"
      */
@@ -132,9 +236,10 @@ public class PortfolioDataService {
     }
 
     /**
-     * Fügt Performance-Daten aus der Übersicht hinzu
+     * Liest die Performance-Daten aus der Übersicht, je Symbol
      */
-    private void addPerformanceData(Report report, Map<String, Position> positions) {
+    private Map<String, PerformanceData> processPerformanceData(Report report) {
+        Map<String, PerformanceData> performance = new HashMap<>();
         String[] sectionNames = {
                 "bersicht_zur_realisierten_und_unrealisierten_performance",
                 "performance_overview",
@@ -144,22 +249,18 @@ public class PortfolioDataService {
         for (String sectionName : sectionNames) {
             SectionData section = report.getSection(sectionName);
             if (section != null) {
-                processPerformanceSection(section, positions);
+                processPerformanceSection(section, performance);
                 break;
             }
         }
+
+        return performance;
     }
 
-    private void processPerformanceSection(SectionData section, Map<String, Position> positions) {
+    private void processPerformanceSection(SectionData section, Map<String, PerformanceData> performance) {
         for (Map<String, String> row : section.getDataRows()) {
             Optional<String> symbol = ReportUtils.getRowValue(row, SYMBOL);
-            if (symbol.isPresent()) {
-                Position position = positions.get(symbol.get());
-                if (position != null) {
-                    PerformanceData performance = createPerformanceFromRow(row);
-                    position.setPerformance(performance);
-                }
-            }
+            symbol.ifPresent(s -> performance.put(s, createPerformanceFromRow(row)));
         }
     }
 
@@ -181,28 +282,28 @@ public class PortfolioDataService {
     }
 
     /**
-     * Fügt Dividenden zu den entsprechenden Positionen hinzu
+     * Liest die Dividenden, gruppiert nach Symbol
      */
-    private void addDividends(Report report, Map<String, Position> positions) {
+    private Map<String, List<Dividend>> processDividends(Report report) {
+        Map<String, List<Dividend>> dividends = new LinkedHashMap<>();
         String[] sectionNames = { "dividenden", "dividends", "dividend_payments" };
 
         for (String sectionName : sectionNames) {
             SectionData section = report.getSection(sectionName);
             if (section != null) {
-                processDividendsSection(section, positions);
+                processDividendsSection(section, dividends);
                 break;
             }
         }
+
+        return dividends;
     }
 
-    private void processDividendsSection(SectionData section, Map<String, Position> positions) {
+    private void processDividendsSection(SectionData section, Map<String, List<Dividend>> dividends) {
         for (Map<String, String> row : section.getDataRows()) {
             Dividend dividend = createDividendFromRow(row);
             if (dividend.getSymbol() != null) {
-                Position position = positions.get(dividend.getSymbol());
-                if (position != null) {
-                    position.addDividend(dividend);
-                }
+                dividends.computeIfAbsent(dividend.getSymbol(), k -> new ArrayList<>()).add(dividend);
             }
         }
     }
@@ -231,38 +332,35 @@ public class PortfolioDataService {
     }
 
     /**
-     * Berechnet Portfolio-Gesamtwerte
+     * Übernimmt die aggregierten Gesamtwerte in das Portfolio
      */
-    private void calculatePortfolioTotals(Portfolio portfolio, Map<String, Position> positions) {
-        BigDecimal totalMarketValue = BigDecimal.ZERO;
-        BigDecimal totalUnrealizedPnL = BigDecimal.ZERO;
-        BigDecimal totalRealizedPnL = BigDecimal.ZERO;
-        BigDecimal totalDividends = BigDecimal.ZERO;
-
-        // TODO
-        for (Position position : positions.values()) {
-            if (position.getCostPrice() != null) {
-                totalMarketValue = totalMarketValue.add(position.getCostPrice());
-            }
-            if (position.getClosingPrice() != null) {
-                totalUnrealizedPnL = totalUnrealizedPnL.add(position.getClosingPrice());
-            }
-            if (position.getWinLoss() != null) {
-                totalRealizedPnL = totalRealizedPnL.add(position.getWinLoss());
-            }
+    private void applyTotals(Portfolio portfolio, PortfolioAggregates aggregates) {
+        PortfolioTotals total = aggregates.getTotal();
+        portfolio.setTotalMarketValue(total.getMarketValue());
+        portfolio.setTotalUnrealizedPnL(total.getUnrealizedPnL());
+        portfolio.setTotalRealizedPnL(total.getRealizedPnL());
+        portfolio.setTotalDividends(total.getDividends());
+
+        aggregates.getByCurrency().forEach((currency, totals) -> portfolio.addCurrencyTotal(currency, totals.getMarketValue()));
+        portfolio.setAggregates(aggregates);
+    }
 
-            // Dividenden summieren
-            BigDecimal positionDividends = position.getDividends().stream()
-                    .map(Dividend::getNetAmount)
-                    .filter(Objects::nonNull)
-                    .reduce(BigDecimal.ZERO, BigDecimal::add);
-            totalDividends = totalDividends.add(positionDividends);
-        }
+    /**
+     * Startet eine Stufe auf dem Stage-Executor; das Ergebnis wird je Report-Version gecacht
+     */
+    private <T> CompletableFuture<T> stage(Report report, String name, Supplier<T> supplier) {
+        return CompletableFuture.supplyAsync(() -> reportCache.get(report, name, supplier), stageExecutor);
+    }
 
-        portfolio.setTotalMarketValue(totalMarketValue);
-        portfolio.setTotalUnrealizedPnL(totalUnrealizedPnL);
-        portfolio.setTotalRealizedPnL(totalRealizedPnL);
-        portfolio.setTotalDividends(totalDividends);
+    private static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
     }
 
     // Hilfsmethoden
@@ -0,0 +1,126 @@
+package com.kalk.broker.backend.service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.kalk.broker.backend.pojo.LedgerEvent;
+
+/**
+ * Append-only Ledger positionsverändernder Ereignisse mit periodischen Snapshots.
+ * Nach jeweils {@code snapshotInterval} Ereignissen wird der Bestand aller Positionen kopiert,
+ * so dass ein Stichtagsbestand aus dem nächstgelegenen Snapshot und höchstens
+ * {@code snapshotInterval - 1} nachgespielten Ereignissen entsteht.
+ */
+final class PositionLedger {
+
+    private final int snapshotInterval;
+    private final List<LedgerEvent> events = new ArrayList<>();
+    private long[] eventTimes = new long[16]; // Epoch-Sekunden, aufsteigend
+    private final List<Map<String, HoldingState>> snapshots = new ArrayList<>();
+    private final Map<String, HoldingState> current = new HashMap<>();
+    private final Map<String, LedgerEvent> assets = new HashMap<>(); // aussagekräftigstes Ereignis je Asset
+
+    PositionLedger(int snapshotInterval) {
+        this.snapshotInterval = Math.max(1, snapshotInterval);
+        this.snapshots.add(Map.of());
+    }
+
+    /**
+     * Hängt ein Ereignis an. Ereignisse müssen in chronologischer Reihenfolge angehängt werden.
+     */
+    void append(LedgerEvent event) {
+        long time = epochSecond(event.getDateTime());
+        if (!events.isEmpty() && time < eventTimes[events.size() - 1]) {
+            throw new IllegalArgumentException("Ledger events must be appended in chronological order: " + event);
+        }
+
+        if (events.size() == eventTimes.length) {
+            eventTimes = Arrays.copyOf(eventTimes, eventTimes.length * 2);
+        }
+        eventTimes[events.size()] = time;
+        events.add(event);
+        assets.merge(event.getAssetKey(), event,
+                (known, added) -> known.getType() == LedgerEvent.Type.DIVIDEND ? added : known);
+        apply(current, event);
+
+        if (events.size() % snapshotInterval == 0) {
+            snapshots.add(copyOf(current));
+        }
+    }
+
+    /**
+     * Liefert den Bestand aller Positionen nach allen Ereignissen bis einschließlich {@code asOf}
+     */
+    Map<String, HoldingState> stateAt(LocalDateTime asOf) {
+        int count = countUntil(epochSecond(asOf));
+        int snapshotIndex = Math.min(count / snapshotInterval, snapshots.size() - 1);
+
+        Map<String, HoldingState> state = copyOf(snapshots.get(snapshotIndex));
+        for (int i = snapshotIndex * snapshotInterval; i < count; i++) {
+            apply(state, events.get(i));
+        }
+        return state;
+    }
+
+    List<LedgerEvent> getEvents() {
+        return Collections.unmodifiableList(events);
+    }
+
+    LedgerEvent getAsset(String assetKey) {
+        return assets.get(assetKey);
+    }
+
+    int size() {
+        return events.size();
+    }
+
+    /**
+     * Anzahl gespeicherter Elemente (Ereignisse und Snapshot-Einträge) als Maß für den Speicherbedarf
+     */
+    long elementCount() {
+        long count = events.size() + current.size();
+        for (Map<String, HoldingState> snapshot : snapshots) {
+            count += snapshot.size();
+        }
+        return count;
+    }
+
+    private int countUntil(long time) {
+        int low = 0;
+        int high = events.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (eventTimes[mid] <= time) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static void apply(Map<String, HoldingState> state, LedgerEvent event) {
+        HoldingState holding = state.computeIfAbsent(event.getAssetKey(), k -> new HoldingState());
+        if (event.getType() == LedgerEvent.Type.DIVIDEND) {
+            holding.applyDividend(event.getAmount());
+        } else {
+            holding.applyFill(event.getQuantity(), event.getAmount());
+        }
+    }
+
+    private static Map<String, HoldingState> copyOf(Map<String, HoldingState> state) {
+        Map<String, HoldingState> copy = new HashMap<>(state.size() * 2);
+        state.forEach((key, holding) -> copy.put(key, holding.copy()));
+        return copy;
+    }
+
+    private static long epochSecond(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC);
+    }
+}
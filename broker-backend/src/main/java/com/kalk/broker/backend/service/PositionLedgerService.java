@@ -0,0 +1,215 @@
+package com.kalk.broker.backend.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+import com.kalk.broker.backend.cache.ReportCache;
+import com.kalk.broker.backend.pojo.LedgerEvent;
+import com.kalk.broker.backend.pojo.PerformanceData;
+import com.kalk.broker.backend.pojo.Portfolio;
+import com.kalk.broker.backend.pojo.Position;
+import com.kalk.broker.backend.pojo.Report;
+import com.kalk.broker.backend.pojo.SectionData;
+import com.kalk.broker.backend.pojo.SymbolTransactions;
+import com.kalk.broker.backend.pojo.Transaction;
+import com.kalk.broker.backend.utils.ReportUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Service for point-in-time portfolio views based on an event-sourced position ledger.
+ * Fills, expiries and dividends of a report are appended to a {@link PositionLedger} once;
+ * "as of" queries then restore the nearest snapshot and replay only the remaining events.
+ */
+@Service
+public class PositionLedgerService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PositionLedgerService.class);
+
+    private static final String[] DIVIDEND_SECTIONS = { "dividenden", "dividends", "dividend_payments" };
+    private static final String EXPIRY_CODE = "Ep";
+
+    private final TransactionDataService transactionDataService;
+    private final ReportCache reportCache;
+    private final int snapshotInterval;
+
+    public PositionLedgerService(TransactionDataService transactionDataService,
+                                 ReportCache reportCache,
+                                 @Value("${broker.ledger.snapshot-interval:64}") int snapshotInterval) {
+        this.transactionDataService = transactionDataService;
+        this.reportCache = reportCache;
+        this.snapshotInterval = snapshotInterval;
+    }
+
+    /**
+     * Returns all ledger events of the given report in chronological order.
+     *
+     * @param report the report containing transaction and dividend data
+     * @return the ledger events
+     */
+    public List<LedgerEvent> getEvents(Report report) {
+        return getLedger(report).getEvents();
+    }
+
+    /**
+     * Creates the portfolio as it was at the end of the given day.
+     * Only positions with a non-zero quantity are included; realized P&amp;L and dividends
+     * of closed positions are still part of the portfolio totals.
+     *
+     * @param report the report containing transaction and dividend data
+     * @param asOf the day to evaluate
+     * @return the portfolio at the end of {@code asOf}
+     */
+    public Portfolio getPortfolioAsOf(Report report, LocalDate asOf) {
+        PositionLedger ledger = getLedger(report);
+        LocalDateTime endOfDay = asOf.atTime(LocalTime.of(23, 59, 59));
+        Map<String, HoldingState> state = ledger.stateAt(endOfDay);
+
+        Portfolio portfolio = new Portfolio();
+        portfolio.setReportDate(endOfDay);
+        if (report.hasSection("kontoinformation")) {
+            portfolio.setBaseCurrency(ReportUtils.getBaseCurrency(report));
+        }
+
+        double totalRealizedPnL = 0;
+        double totalDividends = 0;
+        for (Map.Entry<String, HoldingState> entry : state.entrySet()) {
+            HoldingState holding = entry.getValue();
+            totalRealizedPnL += holding.getRealizedPnL();
+            totalDividends += holding.getDividends();
+
+            if (holding.getQuantity() != 0) {
+                portfolio.addPosition(createPosition(ledger.getAsset(entry.getKey()), holding));
+            }
+        }
+        portfolio.getPositions().sort(Comparator.comparing(Position::getSymbol, Comparator.nullsLast(String::compareTo)));
+        portfolio.setTotalRealizedPnL(BigDecimal.valueOf(totalRealizedPnL));
+        portfolio.setTotalDividends(BigDecimal.valueOf(totalDividends));
+
+        return portfolio;
+    }
+
+    private Position createPosition(LedgerEvent asset, HoldingState holding) {
+        Position position = new Position(asset.getSymbol());
+        position.setAssetCategory(asset.getAssetCategory());
+        position.setCurrency(asset.getCurrency());
+        position.setQuantity(BigDecimal.valueOf(holding.getQuantity()));
+        position.setCostBasis(BigDecimal.valueOf(holding.getCostBasis()));
+
+        PerformanceData performance = new PerformanceData();
+        performance.setRealizedPnL(BigDecimal.valueOf(holding.getRealizedPnL()));
+        performance.setCostBasis(position.getCostBasis());
+        performance.setTotalDividends(BigDecimal.valueOf(holding.getDividends()));
+        position.setPerformance(performance);
+
+        return position;
+    }
+
+    private PositionLedger getLedger(Report report) {
+        return reportCache.get(report, "ledger", () -> buildLedger(report), PositionLedger::elementCount);
+    }
+
+    private PositionLedger buildLedger(Report report) {
+        List<LedgerEvent> events = new ArrayList<>();
+        for (SymbolTransactions symbolTransactions : transactionDataService.processTransactions(report)) {
+            for (Transaction transaction : symbolTransactions.getTransactions()) {
+                if (transaction.getAsset() != null && transaction.getDateTime() != null && transaction.getQuantity() != null) {
+                    events.add(createFillEvent(transaction));
+                }
+            }
+        }
+        addDividendEvents(report, events);
+
+        // Stabile Sortierung: bei gleichem Zeitpunkt bleibt die Reihenfolge des Reports erhalten
+        events.sort(Comparator.comparing(LedgerEvent::getDateTime));
+
+        PositionLedger ledger = new PositionLedger(snapshotInterval);
+        events.forEach(ledger::append);
+        return ledger;
+    }
+
+    private LedgerEvent createFillEvent(Transaction transaction) {
+        boolean expiry = transaction.getCode() != null
+                && Arrays.stream(transaction.getCode().split(";")).map(String::trim).anyMatch(EXPIRY_CODE::equals);
+
+        LedgerEvent event = new LedgerEvent(expiry ? LedgerEvent.Type.EXPIRY : LedgerEvent.Type.FILL,
+                transaction.getDateTime(), transaction.getAsset().getKey());
+        event.setSymbol(transaction.getAsset().getSymbol());
+        event.setAssetCategory(transaction.getAsset().getCategory());
+        event.setCurrency(transaction.getCurrency());
+
+        double quantity = transaction.getQuantity().doubleValue();
+        event.setQuantity(quantity);
+        event.setAmount(HoldingState.tradeCost(transaction, quantity));
+        if (transaction.getProceeds() != null && quantity != 0) {
+            event.setPrice(Math.abs(transaction.getProceeds().doubleValue() / quantity));
+        } else if (transaction.getPrice() != null) {
+            event.setPrice(transaction.getPrice().doubleValue());
+        }
+        return event;
+    }
+
+    private void addDividendEvents(Report report, List<LedgerEvent> events) {
+        SectionData section = Arrays.stream(DIVIDEND_SECTIONS)
+                .map(report::getSection)
+                .filter(Objects::nonNull)
+                .findFirst()
+                .orElse(null);
+        if (section == null) {
+            return;
+        }
+
+        for (Map<String, String> row : section.getDataRows()) {
+            if (!"Data".equalsIgnoreCase(row.getOrDefault("_record_type", "Data"))) {
+                continue;
+            }
+
+            String symbol = extractDividendSymbol(row);
+            String date = ReportUtils.firstValue(row, "Datum", "Zahldatum", "Pay Date", "Date");
+            BigDecimal amount = ReportUtils.parseBigDecimal(ReportUtils.firstValue(row, "Betrag", "Amount", "Gross Amount"));
+            if (symbol == null || date == null || amount == null) {
+                continue;
+            }
+
+            Optional<LocalDateTime> dateTime = ReportUtils.tryParseLocalDateTime(date);
+            if (dateTime.isEmpty()) {
+                // nicht auf "heute" buchen, das verfälscht jede Stichtagsansicht
+                logger.warn("Skipping dividend of {} with unparseable date '{}'", symbol, date);
+                continue;
+            }
+
+            LedgerEvent event = new LedgerEvent(LedgerEvent.Type.DIVIDEND, dateTime.get(), symbol);
+            event.setSymbol(symbol);
+            event.setCurrency(ReportUtils.firstValue(row, "Währung", "Currency"));
+            event.setAmount(amount.doubleValue());
+            events.add(event);
+        }
+    }
+
+    private String extractDividendSymbol(Map<String, String> row) {
+        String symbol = ReportUtils.firstValue(row, "Symbol", "Ticker");
+        if (symbol != null) {
+            return symbol;
+        }
+
+        // IBKR: "AAPL(US0378331005) Bardividende ..."
+        String description = ReportUtils.firstValue(row, "Beschreibung", "Description");
+        if (description == null) {
+            return null;
+        }
+        int end = description.indexOf('(');
+        String token = (end > 0 ? description.substring(0, end) : description.split(" ")[0]).trim();
+        return token.isEmpty() ? null : token;
+    }
+}
@@ -0,0 +1,210 @@
+package com.kalk.broker.backend.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.kalk.broker.backend.pojo.LedgerEvent;
+import com.kalk.broker.backend.pojo.PerformanceData;
+import com.kalk.broker.backend.pojo.Position;
+import com.kalk.broker.backend.pojo.Report;
+import com.kalk.broker.backend.utils.ReportUtils;
+import com.kalk.broker.backend.utils.ReturnUtils;
+import org.springframework.stereotype.Service;
+
+/**
+ * Service for computing time-weighted (TWR) and money-weighted (IRR) returns from the
+ * cash flows of a report.
+ * <p>
+ * Cash flows are taken from the position ledger (fills, expiries, dividends). Between fills a
+ * holding is valued at its last execution price, and the closing valuation is the market value
+ * of the open position (or the last mark for closed positions). Portfolio results are converted
+ * to the base currency with the exchange rates of the report.
+ * <p>
+ * Per-asset returns are only calculated for open positions, closed ones only contribute to the
+ * portfolio result. Annualized money-weighted returns are left empty when they are not meaningful,
+ * e.g. for holding periods shorter than {@value ReturnUtils#MIN_PERIOD_DAYS} days.
+ */
+@Service
+public class ReturnCalculationService {
+
+    private static final int SCALE = 6;
+
+    private final PositionLedgerService positionLedgerService;
+
+    public ReturnCalculationService(PositionLedgerService positionLedgerService) {
+        this.positionLedgerService = positionLedgerService;
+    }
+
+    /**
+     * Calculates TWR and IRR for every traded asset and for the whole portfolio.
+     * The per-position results are stored in the {@link PerformanceData} of the matching positions.
+     *
+     * @param report the report containing transaction and dividend data
+     * @param positions the open positions of the portfolio by symbol (asset key)
+     * @return the portfolio-level performance, or {@code null} if the report has no ledger events
+     */
+    public PerformanceData calculateReturns(Report report, Map<String, Position> positions) {
+        List<LedgerEvent> events = positionLedgerService.getEvents(report);
+        if (events.isEmpty()) {
+            return null;
+        }
+
+        Map<String, BigDecimal> rates = ReportUtils.getExchangeRates(report);
+        long endDay = events.get(events.size() - 1).getDateTime().toLocalDate().toEpochDay();
+        if (report.hasSection("statement")) {
+            endDay = Math.max(endDay, ReportUtils.getReportDate(report).toLocalDate().toEpochDay());
+        }
+
+        Map<String, AssetReturns> assets = new LinkedHashMap<>();
+        CashFlows portfolioFlows = new CashFlows(events.size() + 1);
+        double portfolioValue = 0;
+        double portfolioGross = 0; // Summe der Beträge, Bezugsbasis bei Short-Positionen
+        double portfolioPrevious = 0;
+        double portfolioPreviousGross = 0;
+        double portfolioDividends = 0;
+        double portfolioGrowth = 1;
+
+        for (LedgerEvent event : events) {
+            AssetReturns asset = assets.computeIfAbsent(event.getAssetKey(),
+                    k -> new AssetReturns(rate(rates, event.getCurrency()), positions.containsKey(k)));
+            long day = event.getDateTime().toLocalDate().toEpochDay();
+
+            if (event.getType() == LedgerEvent.Type.DIVIDEND) {
+                asset.addFlow(day, event.getAmount());
+                asset.pendingDividends += event.getAmount();
+                portfolioFlows.add(day, event.getAmount() * asset.rate);
+                portfolioDividends += event.getAmount() * asset.rate;
+                continue;
+            }
+
+            // Bewertung unmittelbar vor der Ausführung zum Ausführungskurs
+            double before = asset.quantity * event.getPrice();
+            portfolioValue += (before - asset.value) * asset.rate;
+            portfolioGross += (Math.abs(before) - Math.abs(asset.value)) * asset.rate;
+            asset.closePeriod(before);
+            portfolioGrowth *= 1 + periodReturn(portfolioPrevious, portfolioPreviousGross, portfolioValue, portfolioDividends);
+            portfolioDividends = 0;
+
+            asset.quantity += event.getQuantity();
+            asset.value = asset.quantity * event.getPrice();
+            portfolioValue += (asset.value - before) * asset.rate;
+            portfolioGross += (Math.abs(asset.value) - Math.abs(before)) * asset.rate;
+            portfolioPrevious = portfolioValue;
+            portfolioPreviousGross = portfolioGross;
+
+            asset.addFlow(day, -event.getAmount());
+            portfolioFlows.add(day, -event.getAmount() * asset.rate);
+        }
+
+        // Schlussbewertung
+        double endValue = 0;
+        for (Map.Entry<String, AssetReturns> entry : assets.entrySet()) {
+            AssetReturns asset = entry.getValue();
+            Position position = positions.get(entry.getKey());
+            double terminal = position != null && position.getValue() != null
+                    ? position.getValue().doubleValue()
+                    : asset.value;
+
+            endValue += terminal * asset.rate;
+
+            if (position != null) {
+                asset.closePeriod(terminal);
+                asset.addFlow(endDay, terminal);
+                if (position.getPerformance() == null) {
+                    position.setPerformance(new PerformanceData());
+                }
+                position.getPerformance().setTimeWeightedReturn(toBigDecimal(asset.growth - 1));
+                position.getPerformance().setMoneyWeightedReturn(toBigDecimal(asset.flows.irr()));
+            }
+        }
+        portfolioGrowth *= 1 + periodReturn(portfolioPrevious, portfolioPreviousGross, endValue, portfolioDividends);
+        portfolioFlows.add(endDay, endValue);
+
+        PerformanceData performance = new PerformanceData();
+        performance.setTimeWeightedReturn(toBigDecimal(portfolioGrowth - 1));
+        performance.setMoneyWeightedReturn(toBigDecimal(portfolioFlows.irr()));
+        return performance;
+    }
+
+    /**
+     * Rendite einer Teilperiode, bezogen auf das Brutto-Exposure zu Periodenbeginn
+     * (bei einzelnen Positionen der Betrag des Anfangswerts, damit auch Short-Positionen korrekt sind)
+     */
+    private static double periodReturn(double startValue, double startExposure, double endValue, double dividends) {
+        if (startExposure < 1e-9) {
+            return 0;
+        }
+        return (endValue + dividends - startValue) / startExposure;
+    }
+
+    private static double rate(Map<String, BigDecimal> rates, String currency) {
+        BigDecimal rate = currency != null ? rates.get(currency) : null;
+        return rate != null ? rate.doubleValue() : 1;
+    }
+
+    private static BigDecimal toBigDecimal(double value) {
+        return Double.isFinite(value) ? BigDecimal.valueOf(value).setScale(SCALE, RoundingMode.HALF_UP) : null;
+    }
+
+    /**
+     * Laufender Zustand eines Assets während der Berechnung
+     */
+    private static final class AssetReturns {
+        private final double rate;
+        private final CashFlows flows; // null bei geschlossenen Positionen, deren Renditen nicht ausgegeben werden
+        private double quantity;
+        private double value;
+        private double pendingDividends;
+        private double growth = 1;
+
+        AssetReturns(double rate, boolean open) {
+            this.rate = rate;
+            this.flows = open ? new CashFlows(8) : null;
+        }
+
+        void addFlow(long day, double amount) {
+            if (flows != null) {
+                flows.add(day, amount);
+            }
+        }
+
+        void closePeriod(double endValue) {
+            if (flows == null) {
+                return;
+            }
+            growth *= 1 + periodReturn(value, Math.abs(value), endValue, pendingDividends);
+            pendingDividends = 0;
+        }
+    }
+
+    /**
+     * Datierte Zahlungsströme als wachsende primitive Arrays
+     */
+    private static final class CashFlows {
+        private long[] days;
+        private double[] amounts;
+        private int count;
+
+        CashFlows(int capacity) {
+            days = new long[Math.max(capacity, 2)];
+            amounts = new double[days.length];
+        }
+
+        void add(long day, double amount) {
+            if (count == days.length) {
+                days = Arrays.copyOf(days, count * 2);
+                amounts = Arrays.copyOf(amounts, count * 2);
+            }
+            days[count] = day;
+            amounts[count++] = amount;
+        }
+
+        double irr() {
+            return ReturnUtils.irr(days, amounts, count);
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.kalk.broker.backend.service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.kalk.broker.backend.cache.ReportCache;
+import com.kalk.broker.backend.config.AppConstants;
+import com.kalk.broker.backend.exception.InvalidQueryException;
+import com.kalk.broker.backend.pojo.Page;
+import com.kalk.broker.backend.pojo.Report;
+import com.kalk.broker.backend.pojo.SectionData;
+import com.kalk.broker.backend.utils.PageUtils;
+import com.kalk.broker.backend.utils.ReportUtils;
+import org.springframework.stereotype.Service;
+
+/**
+ * Service für seitenweise, gefilterte und sortierte Abfragen der Zeilen einer Sektion.
+ * Die Sortierreihenfolge je Spalte und Richtung sowie das Ergebnis je Filter werden einmal je
+ * Report-Version berechnet und gecacht, Folgeseiten lesen nur noch aus dem Cache.
+ */
+@Service
+public class SectionDataService {
+
+    private final ReportCache reportCache;
+
+    public SectionDataService(ReportCache reportCache) {
+        this.reportCache = reportCache;
+    }
+
+    /**
+     * Liefert eine Seite der Zeilen einer Sektion.
+     *
+     * @param report das Report-Objekt
+     * @param sectionName Name der Sektion (muss existieren)
+     * @param filters Filter der Form {@code Spalte=Wert} (exakter Vergleich), alle müssen zutreffen
+     * @param sort Spaltenname, mit führendem "-" absteigend, oder {@code null} für die Dateireihenfolge
+     * @param cursor Cursor der vorherigen Seite oder {@code null}
+     * @param limit Seitengröße oder {@code null} für den Standardwert
+     * @return die angeforderte Seite
+     */
+    public Page<Map<String, String>> getSectionPage(Report report, String sectionName, List<String> filters,
+                                                    String sort, String cursor, Integer limit) {
+        SectionData section = report.getSection(sectionName);
+        Map<String, String> criteria = parseFilters(filters);
+
+        List<Map<String, String>> rows = sort == null || sort.isBlank()
+                ? section.getDataRows()
+                : reportCache.get(report, "section." + sectionName + ".sort." + sort, () -> sortRows(section, sort));
+
+        if (!criteria.isEmpty()) {
+            List<Map<String, String>> ordered = rows;
+            rows = reportCache.get(report, "section." + sectionName + ".filter." + criteria + ".sort." + sort,
+                    () -> ordered.stream().filter(row -> matches(row, criteria)).toList());
+        }
+
+        return PageUtils.page(rows, report.getVersion(), sectionName + "|" + criteria + "|" + sort, cursor, limit);
+    }
+
+    private static Map<String, String> parseFilters(List<String> filters) {
+        Map<String, String> criteria = new LinkedHashMap<>();
+        if (filters == null) {
+            return criteria;
+        }
+        for (String filter : filters) {
+            int separator = filter.indexOf('=');
+            if (separator <= 0) {
+                throw new InvalidQueryException(AppConstants.ErrorMessages.INVALID_FILTER + filter);
+            }
+            criteria.put(filter.substring(0, separator).trim(), filter.substring(separator + 1).trim());
+        }
+        return criteria;
+    }
+
+    private static boolean matches(Map<String, String> row, Map<String, String> criteria) {
+        for (Map.Entry<String, String> criterion : criteria.entrySet()) {
+            String value = row.get(criterion.getKey());
+            if (value == null || !value.trim().equals(criterion.getValue())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Sortiert die Zeilen stabil nach einer Spalte; Zahlen numerisch vor Texten, leere Werte am Ende
+     */
+    private static List<Map<String, String>> sortRows(SectionData section, String sort) {
+        boolean descending = sort.startsWith("-");
+        String column = descending ? sort.substring(1) : sort;
+        if (!section.getHeaders().contains(column) && section.getDataRows().stream().noneMatch(r -> r.containsKey(column))) {
+            throw new InvalidQueryException(AppConstants.ErrorMessages.INVALID_SORT + column);
+        }
+
+        List<SortKey> keys = new ArrayList<>(section.getDataRows().size());
+        for (Map<String, String> row : section.getDataRows()) {
+            keys.add(new SortKey(row, row.get(column)));
+        }
+
+        Comparator<SortKey> order = descending ? Comparator.<SortKey>naturalOrder().reversed() : Comparator.naturalOrder();
+        keys.sort(Comparator.comparing((SortKey key) -> key.text == null).thenComparing(order));
+
+        return keys.stream().map(key -> key.row).toList();
+    }
+
+    /**
+     * Zeile mit vorab geparstem Sortierwert: Zahlen numerisch vor Texten
+     */
+    private static final class SortKey implements Comparable<SortKey> {
+        private final Map<String, String> row;
+        private final String text;
+        private final BigDecimal number;
+
+        SortKey(Map<String, String> row, String value) {
+            this.row = row;
+            this.text = value == null || value.trim().isEmpty() ? null : value.trim();
+            this.number = ReportUtils.parseBigDecimal(text);
+        }
+
+        @Override
+        public int compareTo(SortKey other) {
+            if (text == null || other.text == null) {
+                return 0; // leere Werte werden vorab ans Ende sortiert
+            }
+            if (number != null && other.number != null) {
+                return number.compareTo(other.number);
+            }
+            if (number != null || other.number != null) {
+                return number != null ? -1 : 1;
+            }
+            return text.compareTo(other.text);
+        }
+    }
+}
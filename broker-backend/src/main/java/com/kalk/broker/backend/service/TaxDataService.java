@@ -1,9 +1,12 @@
 package com.kalk.broker.backend.service;
 
+import com.kalk.broker.backend.cache.ReportCache;
 import com.kalk.broker.backend.config.AppConstants;
 import com.kalk.broker.backend.pojo.Report;
 import com.kalk.broker.backend.pojo.SectionData;
 import com.kalk.broker.backend.pojo.TaxRelevantData;
+import com.kalk.broker.backend.pojo.Transaction;
+import com.kalk.broker.backend.utils.ReportUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
@@ -58,7 +61,56 @@ public class TaxDataService {
     // Trade types that represent sales
     private static final Set<String> SALE_TRANSACTION_CODES = Set.of("C", "L", "T");
 
+    private final ReportCache reportCache;
+    private final TransactionDataService transactionDataService;
+
+    public TaxDataService(ReportCache reportCache, TransactionDataService transactionDataService) {
+        this.reportCache = reportCache;
+        this.transactionDataService = transactionDataService;
+    }
+
+    /**
+     * Extrahiert die steuerrelevanten Daten eines Jahres. Das Ergebnis wird je Report-Version und Jahr
+     * gecacht (und nach einem Upload vorberechnet); gleichzeitige Anfragen teilen sich eine Berechnung.
+     * Gecacht werden nur die Jahre des Reports ({@link #getTaxYears}), da das Jahr vom Client kommt.
+     */
     public TaxRelevantData extractTaxRelevantData(Report report, int taxYear) {
+        if (!getTaxYears(report).contains(taxYear)) {
+            return computeTaxRelevantData(report, taxYear);
+        }
+        return reportCache.get(report, "tax-data." + taxYear, () -> computeTaxRelevantData(report, taxYear),
+                TaxDataService::countEntries);
+    }
+
+    /**
+     * Jahre mit Transaktionen sowie das Jahr des Berichtsdatums, aufsteigend
+     */
+    public Set<Integer> getTaxYears(Report report) {
+        return reportCache.get(report, "tax-years", () -> collectTaxYears(report));
+    }
+
+    private static long countEntries(TaxRelevantData data) {
+        return sizeOf(data.getCapitalGains()) + sizeOf(data.getDividends()) + sizeOf(data.getForeignTaxes());
+    }
+
+    private static long sizeOf(List<?> list) {
+        return list != null ? list.size() : 0;
+    }
+
+    private Set<Integer> collectTaxYears(Report report) {
+        Set<Integer> years = new TreeSet<>();
+        for (Transaction transaction : transactionDataService.extractAllTransactions(report)) {
+            if (transaction.getDateTime() != null) {
+                years.add(transaction.getDateTime().getYear());
+            }
+        }
+        if (report.hasSection("statement")) {
+            years.add(ReportUtils.getReportDate(report).getYear());
+        }
+        return Collections.unmodifiableSet(years);
+    }
+
+    private TaxRelevantData computeTaxRelevantData(Report report, int taxYear) {
         logger.info("Extracting tax relevant data for year: {}", taxYear);
 
         TaxRelevantData taxData = new TaxRelevantData();
@@ -196,8 +248,8 @@ public class TaxDataService {
                 continue;
 
             if (quantity.compareTo(BigDecimal.ZERO) > 0) {
-                // Buy transaction
-                buyTransactions.offer(transaction);
+                // Buy transaction; copied because partial matches reduce its remaining quantity
+                buyTransactions.offer(new HashMap<>(transaction));
             } else {
                 // Sell transaction
                 BigDecimal sellQuantity = quantity.abs();
@@ -17,21 +17,30 @@ import static com.kalk.broker.backend.config.ReportField.SUBTOTAL;
 import static com.kalk.broker.backend.config.ReportField.SYMBOL;
 import static com.kalk.broker.backend.config.ReportField.TRANSACTIONS;
 
+import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Function;
 
+import com.kalk.broker.backend.cache.ReportCache;
+import com.kalk.broker.backend.config.AppConstants;
+import com.kalk.broker.backend.exception.InvalidQueryException;
 import com.kalk.broker.backend.pojo.Asset;
 import com.kalk.broker.backend.pojo.IndexOption;
+import com.kalk.broker.backend.pojo.Page;
 import com.kalk.broker.backend.pojo.Report;
 import com.kalk.broker.backend.pojo.SectionData;
 import com.kalk.broker.backend.pojo.Share;
 import com.kalk.broker.backend.pojo.SymbolTransactions;
 import com.kalk.broker.backend.pojo.Transaction;
+import com.kalk.broker.backend.pojo.TransactionFilter;
+import com.kalk.broker.backend.utils.PageUtils;
 import com.kalk.broker.backend.utils.ReportUtils;
 import org.springframework.stereotype.Service;
 
@@ -44,13 +53,33 @@ import org.springframework.stereotype.Service;
 @Service
 public class TransactionDataService {
 
+    private final ReportCache reportCache;
+
+    public TransactionDataService(ReportCache reportCache) {
+        this.reportCache = reportCache;
+    }
+
     /**
      * Processes the transactions section of the given report.
+     * The result is cached per report version and must not be modified by callers.
      *
      * @param report the report containing transaction data
      * @return a list of {@link SymbolTransactions} containing processed transactions
      */
     public List<SymbolTransactions> processTransactions(Report report) {
+        return reportCache.get(report, "transactions", () -> readTransactions(report),
+                TransactionDataService::countTransactions);
+    }
+
+    private static long countTransactions(List<SymbolTransactions> symbolTransactions) {
+        long count = symbolTransactions.size();
+        for (SymbolTransactions st : symbolTransactions) {
+            count += st.getTransactions().size();
+        }
+        return count;
+    }
+
+    private List<SymbolTransactions> readTransactions(Report report) {
         for (String sectionName : TRANSACTIONS.getKeys()) {
             SectionData section = report.getSection(sectionName);
             if (section != null) {
@@ -135,35 +164,99 @@ public class TransactionDataService {
      *
      * @param report das Report-Objekt
      * @param taxYear das Steuerjahr
-     * @return Liste aller Transaktionen
+     * @return unveränderliche Liste der Transaktionen des Jahres, nach Zeitpunkt sortiert
      */
     public List<Transaction> extractTransactions(Report report, int taxYear) {
-        List<SymbolTransactions> symbolTransactions = processTransactions(report);
-        return symbolTransactions.stream()
-            .flatMap(st -> st.getTransactions().stream())
-            .filter(transaction -> transaction.getDateTime() != null &&
-                    transaction.getDateTime().getYear() == taxYear)
-            .sorted((t1, t2) -> t1.getDateTime().compareTo(t2.getDateTime()))
-            .collect(java.util.stream.Collectors.toList());
+        TransactionFilter filter = new TransactionFilter(LocalDate.of(taxYear, 1, 1).atStartOfDay(),
+                LocalDate.of(taxYear + 1, 1, 1).atStartOfDay());
+        return getTransactionIndex(report).query(filter);
     }
 
     /**
      * Extrahiert alle Transaktionen ohne Jahresfilter
      *
      * @param report das Report-Objekt
-     * @return Liste aller Transaktionen
+     * @return Liste aller Transaktionen, nach Zeitpunkt sortiert (undatierte am Ende)
      */
     public List<Transaction> extractAllTransactions(Report report) {
-        List<SymbolTransactions> symbolTransactions = processTransactions(report);
-        return symbolTransactions.stream()
-            .flatMap(st -> st.getTransactions().stream())
-            .sorted((t1, t2) -> {
-                if (t1.getDateTime() == null && t2.getDateTime() == null) return 0;
-                if (t1.getDateTime() == null) return 1;
-                if (t2.getDateTime() == null) return -1;
-                return t1.getDateTime().compareTo(t2.getDateTime());
-            })
-            .collect(java.util.stream.Collectors.toList());
+        return getTransactionIndex(report).all();
+    }
+
+    /**
+     * Liefert alle Transaktionen, die dem Filter entsprechen, nach Zeitpunkt sortiert.
+     * Die Abfrage nutzt die je Report-Version gecachten Sekundärindizes.
+     *
+     * @param report das Report-Objekt
+     * @param filter Zeitraum, Symbol, Währung, Kategorie und Code-Kürzel
+     * @return unveränderliche Liste der passenden Transaktionen
+     */
+    public List<Transaction> queryTransactions(Report report, TransactionFilter filter) {
+        return getTransactionIndex(report).query(filter);
+    }
+
+    /**
+     * Liefert eine Seite der gefilterten und sortierten Transaktionen.
+     * Ohne Sortierung bleibt die Reihenfolge des Zeitindex erhalten, "-dateTime" liest ihn rückwärts;
+     * andere Felder werden stabil sortiert. Das Ergebnis wird je Report-Version, Filter und Sortierung
+     * gecacht, so dass Folgeseiten es wiederverwenden und Cursor über alle Seiten eindeutig bleiben.
+     *
+     * @param report das Report-Objekt
+     * @param filter Filterkriterien
+     * @param sort Sortierfeld, mit führendem "-" absteigend, oder {@code null}
+     * @param cursor Cursor der vorherigen Seite oder {@code null}
+     * @param limit Seitengröße oder {@code null} für den Standardwert
+     * @return die angeforderte Seite
+     */
+    public Page<Transaction> getTransactionPage(Report report, TransactionFilter filter, String sort,
+                                                String cursor, Integer limit) {
+        String order = sort == null || sort.isBlank() ? "dateTime" : sort;
+        List<Transaction> transactions = reportCache.get(report, "transactions.query." + filter + "|" + order,
+                () -> sortTransactions(queryTransactions(report, filter), order));
+        return PageUtils.page(transactions, report.getVersion(), filter + "|" + sort, cursor, limit);
+    }
+
+    private static List<Transaction> sortTransactions(List<Transaction> transactions, String sort) {
+        return switch (sort) {
+            case "dateTime" -> transactions;
+            case "-dateTime" -> TransactionIndex.newestFirst(transactions);
+            default -> {
+                List<Transaction> sorted = new ArrayList<>(transactions);
+                sorted.sort(transactionComparator(sort));
+                yield sorted;
+            }
+        };
+    }
+
+    private static Comparator<Transaction> transactionComparator(String sort) {
+        boolean descending = sort.startsWith("-");
+        String field = descending ? sort.substring(1) : sort;
+        Comparator<Transaction> comparator = switch (field) {
+            case "symbol" -> nullsLast(t -> t.getAsset() != null ? t.getAsset().getSymbol() : null, descending);
+            case "assetCategory" -> nullsLast(t -> t.getAsset() != null ? t.getAsset().getCategory() : null, descending);
+            case "currency" -> nullsLast(Transaction::getCurrency, descending);
+            case "quantity" -> nullsLast(Transaction::getQuantity, descending);
+            case "price" -> nullsLast(Transaction::getPrice, descending);
+            case "proceeds" -> nullsLast(Transaction::getProceeds, descending);
+            case "fees" -> nullsLast(Transaction::getFees, descending);
+            case "realizedPnL" -> nullsLast(Transaction::getRealizedPnL, descending);
+            case "code" -> nullsLast(Transaction::getCode, descending);
+            default -> throw new InvalidQueryException(AppConstants.ErrorMessages.INVALID_SORT + field);
+        };
+        return comparator;
+    }
+
+    /**
+     * Vergleich nach einem Feld, fehlende Werte unabhängig von der Richtung am Ende
+     */
+    private static <U extends Comparable<? super U>> Comparator<Transaction> nullsLast(Function<Transaction, U> key,
+                                                                                   boolean descending) {
+        Comparator<U> order = descending ? Comparator.reverseOrder() : Comparator.naturalOrder();
+        return Comparator.comparing(key, Comparator.nullsLast(order));
+    }
+
+    private TransactionIndex getTransactionIndex(Report report) {
+        return reportCache.get(report, "transactions.index", () -> new TransactionIndex(processTransactions(report)),
+                TransactionIndex::size);
     }
 
     /**
@@ -173,7 +266,15 @@ public class TransactionDataService {
      * @return Map mit Asset-Key als Schlüssel und SymbolTransactions als Wert
      */
     public Map<String, SymbolTransactions> getTransactionsByAssetKey(Report report) {
-        List<SymbolTransactions> symbolTransactions = processTransactions(report);
+        return getTransactionsByAssetKey(processTransactions(report));
+    }
+
+    /**
+     * Gruppiert Transaktionen nach Asset-Key aus bereits verarbeiteten Transaktionen
+     *
+     * @param symbolTransactions das Ergebnis von {@link #processTransactions}
+     */
+    public Map<String, SymbolTransactions> getTransactionsByAssetKey(List<SymbolTransactions> symbolTransactions) {
         Map<String, SymbolTransactions> result = new HashMap<>();
 
         for (SymbolTransactions st : symbolTransactions) {
@@ -192,7 +293,15 @@ public class TransactionDataService {
      * @return Map mit Symbol als Schlüssel und SymbolTransactions als Wert
      */
     public Map<String, SymbolTransactions> getTransactionsBySymbol(Report report) {
-        List<SymbolTransactions> symbolTransactions = processTransactions(report);
+        return getTransactionsBySymbol(processTransactions(report));
+    }
+
+    /**
+     * Gruppiert Transaktionen nach Symbol aus bereits verarbeiteten Transaktionen
+     *
+     * @param symbolTransactions das Ergebnis von {@link #processTransactions}
+     */
+    public Map<String, SymbolTransactions> getTransactionsBySymbol(List<SymbolTransactions> symbolTransactions) {
         Map<String, SymbolTransactions> result = new HashMap<>();
 
         for (SymbolTransactions st : symbolTransactions) {
@@ -212,12 +321,20 @@ public class TransactionDataService {
      * @return die Transaktion oder null wenn nicht gefunden
      */
     public Transaction getTransactionById(Report report, String transactionId) {
-        List<SymbolTransactions> symbolTransactions = processTransactions(report);
-        return symbolTransactions.stream()
-            .flatMap(st -> st.getTransactions().stream())
-            .filter(transaction -> generateTransactionId(transaction).equals(transactionId))
-            .findFirst()
-            .orElse(null);
+        return reportCache.get(report, "transactions.byId", () -> indexTransactionsById(report)).get(transactionId);
+    }
+
+    /**
+     * Index Transaktions-ID → Transaktion; bei doppelten IDs gewinnt wie bisher die erste Transaktion
+     */
+    private Map<String, Transaction> indexTransactionsById(Report report) {
+        Map<String, Transaction> index = new HashMap<>();
+        for (SymbolTransactions st : processTransactions(report)) {
+            for (Transaction transaction : st.getTransactions()) {
+                index.putIfAbsent(generateTransactionId(transaction), transaction);
+            }
+        }
+        return index;
     }
 
     /**
@@ -227,7 +344,15 @@ public class TransactionDataService {
      * @return TransactionSummary mit aggregierten Daten
      */
     public TransactionSummary getTransactionSummary(Report report) {
-        List<SymbolTransactions> symbolTransactions = processTransactions(report);
+        return getTransactionSummary(processTransactions(report));
+    }
+
+    /**
+     * Erstellt eine Zusammenfassung der Transaktionsdaten aus bereits verarbeiteten Transaktionen
+     *
+     * @param symbolTransactions das Ergebnis von {@link #processTransactions}
+     */
+    public TransactionSummary getTransactionSummary(List<SymbolTransactions> symbolTransactions) {
 
         TransactionSummary summary = new TransactionSummary();
         summary.setTotalSymbols(symbolTransactions.size());
@@ -0,0 +1,262 @@
+package com.kalk.broker.backend.service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+import com.kalk.broker.backend.pojo.SymbolTransactions;
+import com.kalk.broker.backend.pojo.Transaction;
+import com.kalk.broker.backend.pojo.TransactionFilter;
+
+/**
+ * Unveränderliche Sekundärindizes über alle Transaktionen eines Reports.
+ * Die Transaktionen liegen nach Zeitpunkt sortiert vor (undatierte am Ende); Zeiträume werden per
+ * Binärsuche auf den Epoch-Sekunden bestimmt. Für Symbol, Währung, Kategorie und Code-Kürzel gibt es
+ * Posting-Listen mit aufsteigenden Positionen in der sortierten Folge, so dass eine gefilterte
+ * Abfrage O(log n + k) kostet (k = Treffer der kürzesten Posting-Liste im Zeitraum).
+ */
+final class TransactionIndex {
+
+    private static final int[] EMPTY = new int[0];
+
+    private final Transaction[] byDate;
+    private final long[] times; // Epoch-Sekunden der datierten Transaktionen, aufsteigend
+    private final Map<String, int[]> bySymbol;
+    private final Map<String, int[]> byCurrency;
+    private final Map<String, int[]> byCategory;
+    private final Map<String, int[]> byCode;
+
+    TransactionIndex(List<SymbolTransactions> symbolTransactions) {
+        List<Transaction> all = new ArrayList<>();
+        symbolTransactions.forEach(st -> all.addAll(st.getTransactions()));
+        // stabil sortiert, undatierte Transaktionen am Ende
+        all.sort(Comparator.comparing(Transaction::getDateTime, Comparator.nullsLast(Comparator.naturalOrder())));
+        byDate = all.toArray(new Transaction[0]);
+
+        int dated = 0;
+        while (dated < byDate.length && byDate[dated].getDateTime() != null) {
+            dated++;
+        }
+        times = new long[dated];
+        for (int i = 0; i < dated; i++) {
+            times[i] = epochSecond(byDate[i].getDateTime());
+        }
+
+        Map<String, Postings> symbols = new HashMap<>();
+        Map<String, Postings> currencies = new HashMap<>();
+        Map<String, Postings> categories = new HashMap<>();
+        Map<String, Postings> codes = new HashMap<>();
+        for (int i = 0; i < byDate.length; i++) {
+            Transaction transaction = byDate[i];
+            if (transaction.getAsset() != null) {
+                add(symbols, transaction.getAsset().getSymbol(), i);
+                add(categories, transaction.getAsset().getCategory(), i);
+            }
+            add(currencies, transaction.getCurrency(), i);
+            if (transaction.getCode() != null) {
+                for (String code : transaction.getCode().split(";")) {
+                    add(codes, code.trim(), i);
+                }
+            }
+        }
+        bySymbol = freeze(symbols);
+        byCurrency = freeze(currencies);
+        byCategory = freeze(categories);
+        byCode = freeze(codes);
+    }
+
+    /**
+     * Alle Transaktionen nach Zeitpunkt sortiert, undatierte am Ende
+     */
+    List<Transaction> all() {
+        return new Slice(byDate, 0, byDate.length);
+    }
+
+    int size() {
+        return byDate.length;
+    }
+
+    /**
+     * Absteigende Sicht auf ein Abfrageergebnis ohne Kopie: datierte Transaktionen vom neuesten zum
+     * ältesten, undatierte weiterhin am Ende
+     *
+     * @param ascending Ergebnis von {@link #all()} oder {@link #query(TransactionFilter)}
+     */
+    static List<Transaction> newestFirst(List<Transaction> ascending) {
+        int dated = ascending.size();
+        while (dated > 0 && ascending.get(dated - 1).getDateTime() == null) {
+            dated--;
+        }
+        return new NewestFirst(ascending, dated);
+    }
+
+    /**
+     * Liefert alle Transaktionen, die dem Filter entsprechen, nach Zeitpunkt sortiert.
+     * Ist ein Zeitraum gesetzt, werden undatierte Transaktionen nicht berücksichtigt.
+     */
+    List<Transaction> query(TransactionFilter filter) {
+        int lo = 0;
+        int hi = byDate.length;
+        if (filter.getFrom() != null || filter.getTo() != null) {
+            lo = filter.getFrom() != null ? lowerBound(epochSecond(filter.getFrom())) : 0;
+            hi = filter.getTo() != null ? lowerBound(epochSecond(filter.getTo())) : times.length;
+            if (lo >= hi) {
+                return List.of();
+            }
+        }
+
+        List<int[]> postings = new ArrayList<>(4);
+        if (!collect(postings, bySymbol, filter.getSymbol())
+                || !collect(postings, byCurrency, filter.getCurrency())
+                || !collect(postings, byCategory, filter.getAssetCategory())
+                || !collect(postings, byCode, filter.getCode())) {
+            return List.of();
+        }
+        if (postings.isEmpty()) {
+            return new Slice(byDate, lo, hi);
+        }
+
+        // kürzeste Posting-Liste treibt die Schnittmenge, die übrigen werden per Binärsuche geprüft
+        postings.sort(Comparator.comparingInt(p -> p.length));
+        int[] driver = postings.get(0);
+        int start = lowerBound(driver, lo);
+        int end = lowerBound(driver, hi);
+
+        List<Transaction> result = new ArrayList<>(end - start);
+        candidates:
+        for (int i = start; i < end; i++) {
+            int position = driver[i];
+            for (int p = 1; p < postings.size(); p++) {
+                if (Arrays.binarySearch(postings.get(p), position) < 0) {
+                    continue candidates;
+                }
+            }
+            result.add(byDate[position]);
+        }
+        return result;
+    }
+
+    private static boolean collect(List<int[]> postings, Map<String, int[]> index, String key) {
+        if (key == null) {
+            return true;
+        }
+        int[] list = index.getOrDefault(key, EMPTY);
+        postings.add(list);
+        return list.length > 0;
+    }
+
+    /**
+     * Erste Position mit Zeitpunkt &gt;= {@code time}
+     */
+    private int lowerBound(long time) {
+        int lo = 0;
+        int hi = times.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (times[mid] < time) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    private static int lowerBound(int[] list, int value) {
+        int index = Arrays.binarySearch(list, value);
+        return index >= 0 ? index : -index - 1;
+    }
+
+    private static void add(Map<String, Postings> index, String key, int position) {
+        if (key != null && !key.isEmpty()) {
+            index.computeIfAbsent(key, k -> new Postings()).add(position);
+        }
+    }
+
+    private static Map<String, int[]> freeze(Map<String, Postings> index) {
+        Map<String, int[]> frozen = new HashMap<>(index.size() * 2);
+        index.forEach((key, postings) -> frozen.put(key, postings.toArray()));
+        return frozen;
+    }
+
+    private static long epochSecond(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    /**
+     * Wachsende Posting-Liste beim Aufbau
+     */
+    private static final class Postings {
+        private int[] positions = new int[4];
+        private int count;
+
+        void add(int position) {
+            if (count == positions.length) {
+                positions = Arrays.copyOf(positions, count * 2);
+            }
+            positions[count++] = position;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(positions, count);
+        }
+    }
+
+    /**
+     * Unveränderliche Sicht auf einen Bereich der sortierten Transaktionen, ohne Kopie
+     */
+    private static final class Slice extends AbstractList<Transaction> implements RandomAccess {
+        private final Transaction[] transactions;
+        private final int from;
+        private final int to;
+
+        Slice(Transaction[] transactions, int from, int to) {
+            this.transactions = transactions;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        public Transaction get(int index) {
+            if (index < 0 || index >= to - from) {
+                throw new IndexOutOfBoundsException(index);
+            }
+            return transactions[from + index];
+        }
+
+        @Override
+        public int size() {
+            return to - from;
+        }
+    }
+
+    /**
+     * Umgekehrte Sicht auf die datierten Transaktionen einer aufsteigenden Liste, undatierte bleiben am Ende
+     */
+    private static final class NewestFirst extends AbstractList<Transaction> implements RandomAccess {
+        private final List<Transaction> ascending;
+        private final int dated;
+
+        NewestFirst(List<Transaction> ascending, int dated) {
+            this.ascending = ascending;
+            this.dated = dated;
+        }
+
+        @Override
+        public Transaction get(int index) {
+            return index < dated ? ascending.get(dated - 1 - index) : ascending.get(index);
+        }
+
+        @Override
+        public int size() {
+            return ascending.size();
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package com.kalk.broker.backend.service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+
+import com.kalk.broker.backend.config.AppConstants;
+import com.kalk.broker.backend.config.ExecutorConfiguration;
+import com.kalk.broker.backend.csv.FileImporter;
+import com.kalk.broker.backend.events.ReportEventBroadcaster;
+import com.kalk.broker.backend.exception.FileProcessingException;
+import com.kalk.broker.backend.pojo.Report;
+import com.kalk.broker.backend.pojo.UploadJob;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+/**
+ * Asynchrone Uploads in zwei Phasen:
+ * <ol>
+ *     <li>Die Datei wird auf dem Ingest-Executor geparst; danach ist der Report mit seinen Sektionen sofort abrufbar.</li>
+ *     <li>Transaktionen, Portfolio und die Steuerdaten aller Jahre werden im Hintergrund vorberechnet.</li>
+ * </ol>
+ * Der Upload wird vorher in eine temporäre Datei kopiert, da die Multipart-Daten mit dem Request verworfen werden.
+ * Die Zahl wartender Uploads und ihr geschätzter Speicherbedarf sind über den {@link IngestLimiter} begrenzt.
+ */
+@Service
+public class UploadJobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(UploadJobService.class);
+
+    private static final int MAX_RETAINED_JOBS = 20;
+
+    private final FileImporter fileImporter;
+    private final TransactionDataService transactionDataService;
+    private final PortfolioDataService portfolioDataService;
+    private final TaxDataService taxDataService;
+    private final ReportEventBroadcaster eventBroadcaster;
+    private final IngestLimiter ingestLimiter;
+    private final ExecutorService ingestExecutor;
+    private final ExecutorService warmupExecutor;
+    private final Map<String, UploadJob> jobs = new ConcurrentHashMap<>();
+
+    public UploadJobService(FileImporter fileImporter, TransactionDataService transactionDataService,
+                            PortfolioDataService portfolioDataService, TaxDataService taxDataService,
+                            ReportEventBroadcaster eventBroadcaster, IngestLimiter ingestLimiter,
+                            @Qualifier(ExecutorConfiguration.REPORT_INGEST_EXECUTOR) ExecutorService ingestExecutor,
+                            @Qualifier(ExecutorConfiguration.REPORT_WARMUP_EXECUTOR) ExecutorService warmupExecutor) {
+        this.fileImporter = fileImporter;
+        this.transactionDataService = transactionDataService;
+        this.portfolioDataService = portfolioDataService;
+        this.taxDataService = taxDataService;
+        this.eventBroadcaster = eventBroadcaster;
+        this.ingestLimiter = ingestLimiter;
+        this.ingestExecutor = ingestExecutor;
+        this.warmupExecutor = warmupExecutor;
+    }
+
+    /**
+     * Übernimmt einen Upload und startet die Verarbeitung im Hintergrund
+     *
+     * @param file die hochgeladene Datei
+     * @param workspaceId der Arbeitsbereich, dessen Report ersetzt wird
+     * @param reservation die Speicherreservierung aus der Zulassungsprüfung, {@code null} wenn keine erfolgt ist
+     * @return der neue Job im Status QUEUED
+     * @throws com.kalk.broker.backend.exception.UploadRejectedException wenn die Ingest-Kapazität erschöpft ist
+     */
+    public UploadJob submit(MultipartFile file, String workspaceId, IngestLimiter.Reservation reservation) throws IOException {
+        IngestLimiter.Reservation admitted = reservation != null ? reservation : ingestLimiter.reserve(file.getSize());
+        try {
+            UploadJob job = enqueue(file, workspaceId, admitted);
+            admitted.handOver();
+            return job;
+        } finally {
+            if (reservation == null && !admitted.isHandedOver()) {
+                admitted.release();
+            }
+        }
+    }
+
+    private UploadJob enqueue(MultipartFile file, String workspaceId, IngestLimiter.Reservation reservation) throws IOException {
+        Path copy = Files.createTempFile("broker-upload-", AppConstants.CSV_FILE_EXTENSION);
+        try {
+            file.transferTo(copy);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(copy);
+            throw e;
+        }
+
+        UploadJob job = new UploadJob(UUID.randomUUID().toString(), file.getOriginalFilename(), workspaceId);
+        jobs.put(job.getId(), job);
+        pruneFinishedJobs();
+        publish(job);
+
+        try {
+            ingestExecutor.execute(() -> {
+                try {
+                    process(job, copy);
+                } finally {
+                    reservation.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.getId());
+            deleteQuietly(copy);
+            throw ingestLimiter.queueFull();
+        }
+        return job;
+    }
+
+    /**
+     * Liefert einen Job; Jobs anderer Arbeitsbereiche sind nicht sichtbar
+     */
+    public Optional<UploadJob> getJob(String jobId, String workspaceId) {
+        return Optional.ofNullable(jobs.get(jobId))
+                .filter(job -> job.getWorkspaceId().equals(workspaceId));
+    }
+
+    private void process(UploadJob job, Path copy) {
+        Report report;
+        try {
+            update(job, UploadJob.Status.PARSING);
+            report = fileImporter.parseUploadedFile(copy, job.getFileName(), job.getWorkspaceId());
+            if (report == null) {
+                throw new FileProcessingException(AppConstants.ErrorMessages.PARSING_ERROR);
+            }
+        } catch (IOException | RuntimeException e) {
+            logger.error("Upload {} failed: {}", job.getId(), e.getMessage());
+            job.setMessage(e instanceof IOException
+                    ? AppConstants.ErrorMessages.PROCESSING_ERROR + e.getMessage()
+                    : e.getMessage());
+            update(job, UploadJob.Status.FAILED);
+            return;
+        } finally {
+            deleteQuietly(copy);
+        }
+
+        job.setVersion(report.getVersion());
+        job.setSectionNames(report.getSections().keySet().stream().toList());
+        job.setMessage(AppConstants.SuccessMessages.FILE_UPLOADED);
+        update(job, UploadJob.Status.AVAILABLE);
+        logger.info("Report {} available: {} with {} sections", report.getVersion(), job.getFileName(), job.getSectionCount());
+
+        CompletableFuture.runAsync(() -> warmUp(report), warmupExecutor)
+                .whenComplete((ignored, e) -> {
+                    if (e != null) {
+                        // der Report bleibt abrufbar, fehlende Daten werden bei Bedarf berechnet
+                        Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                        logger.warn("Precomputing report {} failed: {}", report.getVersion(), cause.getMessage());
+                        job.setPrecomputeError(AppConstants.ErrorMessages.PRECOMPUTE_FAILED + cause.getMessage());
+                    }
+                    update(job, UploadJob.Status.COMPLETED);
+                });
+    }
+
+    /**
+     * Berechnet die teuren abgeleiteten Daten vor; bricht ab, sobald ein neuerer Report hochgeladen wurde
+     */
+    private void warmUp(Report report) {
+        long start = System.currentTimeMillis();
+        transactionDataService.processTransactions(report);
+        portfolioDataService.createPortfolio(report);
+        for (int taxYear : taxDataService.getTaxYears(report)) {
+            Report current = fileImporter.getUploadedReport(report.getWorkspaceId());
+            if (current == null || current.getVersion() != report.getVersion()) {
+                return;
+            }
+            taxDataService.extractTaxRelevantData(report, taxYear);
+        }
+        logger.info("Precomputed report {} in {} ms", report.getVersion(), System.currentTimeMillis() - start);
+    }
+
+    private void update(UploadJob job, UploadJob.Status status) {
+        job.setStatus(status);
+        publish(job);
+    }
+
+    private void publish(UploadJob job) {
+        eventBroadcaster.publish(job.getWorkspaceId(), ReportEventBroadcaster.UPLOAD_JOB, job);
+    }
+
+    private void pruneFinishedJobs() {
+        int excess = jobs.size() - MAX_RETAINED_JOBS;
+        Iterator<UploadJob> iterator = jobs.values().stream()
+                .filter(job -> job.getStatus().isFinished())
+                .sorted((a, b) -> a.getCreatedAt().compareTo(b.getCreatedAt()))
+                .iterator();
+        while (excess-- > 0 && iterator.hasNext()) {
+            jobs.remove(iterator.next().getId());
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.warn("Could not delete temporary upload {}: {}", file, e.getMessage());
+        }
+    }
+}
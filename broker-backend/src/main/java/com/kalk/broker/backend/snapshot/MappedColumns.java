@@ -0,0 +1,73 @@
+package com.kalk.broker.backend.snapshot;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Die spaltenweise abgelegten Zeilen einer Sektion innerhalb eines gemappten Snapshots.
+ * Zellen werden erst beim Zugriff dekodiert; Zeichenketten kommen aus dem gemeinsamen
+ * Wörterbuch, Zahlen werden aus Mantisse und Skala erzeugt.
+ * <p>
+ * Es wird nur mit absoluten Positionen gelesen, der Puffer kann daher von beliebig vielen
+ * Threads gleichzeitig genutzt werden.
+ */
+final class MappedColumns {
+
+    private final ByteBuffer buffer;
+    private final String[] dictionary;
+    private final String[] names;
+    private final Map<String, Integer> indexByName;
+    private final byte[] types;
+    private final int[] offsets; // STRING: Beginn der Refs, DECIMAL: Beginn der Skalen
+    private final int rowCount;
+
+    MappedColumns(ByteBuffer buffer, String[] dictionary, String[] names, byte[] types, int[] offsets, int rowCount) {
+        this.buffer = buffer;
+        this.dictionary = dictionary;
+        this.names = names;
+        this.types = types;
+        this.offsets = offsets;
+        this.rowCount = rowCount;
+        this.indexByName = new HashMap<>();
+        for (int c = 0; c < names.length; c++) {
+            indexByName.put(names[c], c);
+        }
+    }
+
+    int columnCount() {
+        return names.length;
+    }
+
+    int rowCount() {
+        return rowCount;
+    }
+
+    String name(int column) {
+        return names[column];
+    }
+
+    /**
+     * @return Spaltenindex oder -1, wenn es die Spalte in dieser Sektion nicht gibt
+     */
+    int indexOf(Object name) {
+        Integer index = indexByName.get(name);
+        return index != null ? index : -1;
+    }
+
+    boolean isPresent(int column, int row) {
+        return types[column] == ReportSnapshotCodec.TYPE_DECIMAL
+                || buffer.getInt(offsets[column] + row * Integer.BYTES) != ReportSnapshotCodec.ABSENT_REF;
+    }
+
+    String value(int column, int row) {
+        if (types[column] == ReportSnapshotCodec.TYPE_DECIMAL) {
+            int scale = buffer.get(offsets[column] + row);
+            long unscaled = buffer.getLong(offsets[column] + rowCount + row * Long.BYTES);
+            return scale == 0 ? Long.toString(unscaled) : BigDecimal.valueOf(unscaled, scale).toPlainString();
+        }
+        int ref = buffer.getInt(offsets[column] + row * Integer.BYTES);
+        return ref < 0 ? null : dictionary[ref];
+    }
+}
@@ -0,0 +1,331 @@
+package com.kalk.broker.backend.snapshot;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.kalk.broker.backend.pojo.Report;
+import com.kalk.broker.backend.pojo.SectionData;
+import com.kalk.broker.backend.pojo.Statement;
+
+/**
+ * Binärformat für geparste Reports.
+ * <p>
+ * Alle Zeichenketten stehen einmal in einem Wörterbuch und werden über ihren Index referenziert.
+ * Die Zeilen einer Sektion werden spaltenweise abgelegt: Spalten, deren Werte ausnahmslos
+ * Dezimalzahlen in kanonischer Schreibweise sind, als {@code long}-Mantisse plus Skala, alle
+ * anderen als Wörterbuch-Indizes. Die Spalten haben feste Breite, jede Zelle ist also direkt
+ * adressierbar.
+ * <pre>
+ * int magic, int formatVersion
+ * int dictionarySize, dictionarySize × (int byteLength, UTF-8 bytes)
+ * long version, ref fingerprint, ref fileName, ref workspaceId
+ * byte hasStatement [ref title, ref period, ref generated]
+ * int sectionCount, je Sektion:
+ *   ref key, ref sectionName
+ *   int headerCount, headerCount × ref
+ *   int metadataCount, metadataCount × (ref key, ref value)
+ *   int rowCount, int columnCount, je Spalte:
+ *     ref name, byte type
+ *     STRING:  rowCount × ref
+ *     DECIMAL: rowCount × byte scale, rowCount × long unscaledValue
+ * </pre>
+ * {@code ref} ist ein {@code int}-Index ins Wörterbuch; {@link #NULL_REF} steht für {@code null},
+ * {@link #ABSENT_REF} für eine Spalte, die in der Zeile fehlt.
+ */
+public final class ReportSnapshotCodec {
+
+    static final int MAGIC = 0x42524b53; // "BRKS"
+    static final int FORMAT_VERSION = 1;
+
+    static final int NULL_REF = -1;
+    static final int ABSENT_REF = -2;
+
+    static final byte TYPE_STRING = 0;
+    static final byte TYPE_DECIMAL = 1;
+
+    private ReportSnapshotCodec() {
+        // Utility class - prevent instantiation
+    }
+
+    /**
+     * Schreibt einen Report in die angegebene Datei (wird überschrieben)
+     */
+    public static void write(Report report, Path file) throws IOException {
+        Dictionary dictionary = new Dictionary();
+        List<SectionLayout> layouts = new ArrayList<>();
+        report.getSections().forEach((key, section) -> layouts.add(SectionLayout.of(key, section, dictionary)));
+        Statement statement = report.getStatement();
+        int[] header = {
+                dictionary.ref(report.getFingerprint()),
+                dictionary.ref(report.getFileName()),
+                dictionary.ref(report.getWorkspaceId())
+        };
+        int[] statementRefs = statement == null ? null : new int[] {
+                dictionary.ref(statement.title()),
+                dictionary.ref(statement.period()),
+                dictionary.ref(statement.generated() != null ? statement.generated().toString() : null)
+        };
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+
+            out.writeInt(dictionary.size());
+            for (String value : dictionary.values()) {
+                byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                out.writeInt(bytes.length);
+                out.write(bytes);
+            }
+
+            out.writeLong(report.getVersion());
+            for (int ref : header) {
+                out.writeInt(ref);
+            }
+            out.writeByte(statementRefs != null ? 1 : 0);
+            if (statementRefs != null) {
+                for (int ref : statementRefs) {
+                    out.writeInt(ref);
+                }
+            }
+
+            out.writeInt(layouts.size());
+            for (SectionLayout layout : layouts) {
+                layout.write(out, dictionary);
+            }
+        }
+    }
+
+    /**
+     * Liest einen Report über eine Speicherabbildung der Datei; der Report ist bereits eingefroren.
+     * Die Datenzeilen sind {@link SnapshotRow}-Sichten auf das Mapping, die Datei darf daher nach
+     * dem Schreiben nicht mehr verändert werden (ersetzen oder löschen ist unkritisch).
+     *
+     * @throws IOException bei unbekanntem Format oder beschädigter Datei
+     */
+    public static Report read(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return read(buffer);
+        } catch (RuntimeException e) {
+            // BufferUnderflowException, IndexOutOfBoundsException ... bei abgeschnittenen Dateien
+            throw new IOException("Corrupt report snapshot " + file + ": " + e, e);
+        }
+    }
+
+    static Report read(ByteBuffer buffer) throws IOException {
+        if (buffer.getInt() != MAGIC) {
+            throw new IOException("Not a report snapshot");
+        }
+        int formatVersion = buffer.getInt();
+        if (formatVersion != FORMAT_VERSION) {
+            throw new IOException("Unsupported report snapshot format " + formatVersion);
+        }
+
+        String[] dictionary = new String[buffer.getInt()];
+        for (int i = 0; i < dictionary.length; i++) {
+            byte[] bytes = new byte[buffer.getInt()];
+            buffer.get(bytes);
+            dictionary[i] = new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        Report report = new Report();
+        report.setVersion(buffer.getLong());
+        report.setFingerprint(lookup(dictionary, buffer.getInt()));
+        report.setFileName(lookup(dictionary, buffer.getInt()));
+        report.setWorkspaceId(lookup(dictionary, buffer.getInt()));
+        if (buffer.get() != 0) {
+            String title = lookup(dictionary, buffer.getInt());
+            String period = lookup(dictionary, buffer.getInt());
+            String generated = lookup(dictionary, buffer.getInt());
+            report.setStatement(new Statement(title, period, generated != null ? LocalDateTime.parse(generated) : null));
+        }
+
+        int sectionCount = buffer.getInt();
+        for (int s = 0; s < sectionCount; s++) {
+            String key = lookup(dictionary, buffer.getInt());
+            report.addSection(key, readSection(buffer, dictionary));
+        }
+        return report.freeze();
+    }
+
+    private static SectionData readSection(ByteBuffer buffer, String[] dictionary) {
+        SectionData section = new SectionData(lookup(dictionary, buffer.getInt()));
+
+        int headerCount = buffer.getInt();
+        List<String> headers = new ArrayList<>(headerCount);
+        for (int i = 0; i < headerCount; i++) {
+            headers.add(lookup(dictionary, buffer.getInt()));
+        }
+        section.setHeaders(headers);
+
+        int metadataCount = buffer.getInt();
+        for (int i = 0; i < metadataCount; i++) {
+            section.addMetadata(lookup(dictionary, buffer.getInt()), lookup(dictionary, buffer.getInt()));
+        }
+
+        int rowCount = buffer.getInt();
+        int columnCount = buffer.getInt();
+        String[] names = new String[columnCount];
+        byte[] types = new byte[columnCount];
+        int[] offsets = new int[columnCount];
+        for (int c = 0; c < columnCount; c++) {
+            names[c] = lookup(dictionary, buffer.getInt());
+            types[c] = buffer.get();
+            offsets[c] = buffer.position();
+            int width = types[c] == TYPE_DECIMAL ? 1 + Long.BYTES : Integer.BYTES;
+            buffer.position(offsets[c] + rowCount * width);
+        }
+
+        // Zeilen bleiben im Mapping, dekodiert wird erst beim Zugriff
+        MappedColumns columns = new MappedColumns(buffer, dictionary, names, types, offsets, rowCount);
+        SnapshotRow[] rows = new SnapshotRow[rowCount];
+        for (int r = 0; r < rowCount; r++) {
+            rows[r] = new SnapshotRow(columns, r);
+        }
+        section.setDataRows(Arrays.asList(rows));
+        return section.freezeWithImmutableRows();
+    }
+
+    private static String lookup(String[] dictionary, int ref) {
+        return ref == NULL_REF ? null : dictionary[ref];
+    }
+
+    /**
+     * Wörterbuch aller Zeichenketten in Reihenfolge des ersten Auftretens
+     */
+    private static final class Dictionary {
+        private final Map<String, Integer> refs = new LinkedHashMap<>();
+
+        int ref(String value) {
+            if (value == null) {
+                return NULL_REF;
+            }
+            return refs.computeIfAbsent(value, v -> refs.size());
+        }
+
+        int size() {
+            return refs.size();
+        }
+
+        Set<String> values() {
+            return refs.keySet();
+        }
+    }
+
+    /**
+     * Spaltenweise Aufbereitung einer Sektion; legt beim Erzeugen alle Zeichenketten im Wörterbuch an
+     */
+    private record SectionLayout(int keyRef, int nameRef, SectionData section, List<String> columns, byte[] types) {
+
+        static SectionLayout of(String key, SectionData section, Dictionary dictionary) {
+            // Spalten in Iterationsreihenfolge der Zeilen, beim Lesen wird in dieser Reihenfolge eingefügt
+            Set<String> columnNames = new LinkedHashSet<>();
+            for (Map<String, String> row : section.getDataRows()) {
+                columnNames.addAll(row.keySet());
+            }
+            List<String> columns = new ArrayList<>(columnNames);
+            byte[] types = new byte[columns.size()];
+            for (int c = 0; c < columns.size(); c++) {
+                types[c] = isDecimalColumn(section.getDataRows(), columns.get(c)) ? TYPE_DECIMAL : TYPE_STRING;
+                dictionary.ref(columns.get(c));
+                if (types[c] == TYPE_STRING) {
+                    for (Map<String, String> row : section.getDataRows()) {
+                        dictionary.ref(row.get(columns.get(c)));
+                    }
+                }
+            }
+            section.getHeaders().forEach(dictionary::ref);
+            section.getMetadata().forEach((name, value) -> {
+                dictionary.ref(name);
+                dictionary.ref(value);
+            });
+            return new SectionLayout(dictionary.ref(key), dictionary.ref(section.getSectionName()), section, columns, types);
+        }
+
+        void write(DataOutputStream out, Dictionary dictionary) throws IOException {
+            out.writeInt(keyRef);
+            out.writeInt(nameRef);
+
+            out.writeInt(section.getHeaders().size());
+            for (String header : section.getHeaders()) {
+                out.writeInt(dictionary.ref(header));
+            }
+
+            out.writeInt(section.getMetadata().size());
+            for (Map.Entry<String, String> entry : section.getMetadata().entrySet()) {
+                out.writeInt(dictionary.ref(entry.getKey()));
+                out.writeInt(dictionary.ref(entry.getValue()));
+            }
+
+            List<Map<String, String>> rows = section.getDataRows();
+            out.writeInt(rows.size());
+            out.writeInt(columns.size());
+            for (int c = 0; c < columns.size(); c++) {
+                String column = columns.get(c);
+                out.writeInt(dictionary.ref(column));
+                out.writeByte(types[c]);
+                if (types[c] == TYPE_DECIMAL) {
+                    for (Map<String, String> row : rows) {
+                        out.writeByte(new BigDecimal(row.get(column)).scale());
+                    }
+                    for (Map<String, String> row : rows) {
+                        out.writeLong(new BigDecimal(row.get(column)).unscaledValue().longValueExact());
+                    }
+                } else {
+                    for (Map<String, String> row : rows) {
+                        out.writeInt(row.containsKey(column) ? dictionary.ref(row.get(column)) : ABSENT_REF);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Eine Spalte ist numerisch, wenn jede Zeile einen Wert hat, der sich verlustfrei
+         * (gleiche Schreibweise) als long-Mantisse mit Byte-Skala darstellen lässt
+         */
+        private static boolean isDecimalColumn(List<Map<String, String>> rows, String column) {
+            if (rows.isEmpty()) {
+                return false;
+            }
+            for (Map<String, String> row : rows) {
+                String value = row.get(column);
+                if (value == null || value.isEmpty() || !isCanonicalDecimal(value)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static boolean isCanonicalDecimal(String value) {
+            char first = value.charAt(0);
+            if (first != '-' && (first < '0' || first > '9')) {
+                return false;
+            }
+            try {
+                BigDecimal decimal = new BigDecimal(value);
+                return decimal.scale() >= 0 && decimal.scale() <= Byte.MAX_VALUE
+                        && decimal.unscaledValue().bitLength() < Long.SIZE
+                        && decimal.toPlainString().equals(value);
+            } catch (NumberFormatException e) {
+                return false;
+            }
+        }
+    }
+}
@@ -0,0 +1,556 @@
+package com.kalk.broker.backend.snapshot;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+import com.kalk.broker.backend.pojo.Report;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+/**
+ * Legt die Reports jedes Arbeitsbereichs als Binär-Snapshots ({@link ReportSnapshotCodec})
+ * im Verzeichnis {@code broker.snapshots.directory} ab, damit sie einen Neustart überstehen.
+ * Ohne Verzeichnis ist die Persistenz abgeschaltet.
+ * <p>
+ * Jede Version liegt in einer eigenen Datei {@code <Arbeitsbereich>.<Version>.snapshot}; welche
+ * davon aktiv ist, hält die kleine Zeigerdatei {@code <Arbeitsbereich>.active}. Umschalten
+ * schreibt damit nur den Zeiger, nie den Report.
+ * <p>
+ * Geschrieben wird zweistufig: {@link #stage} erzeugt eine temporäre Datei, {@link #commit}
+ * benennt sie atomar um und setzt den Zeiger. So sieht ein Leser nie eine halb geschriebene Datei,
+ * und eine einmal gemappte Datei wird nie verändert.
+ * <p>
+ * Als letzte Nutzung eines Arbeitsbereichs gilt die Änderungszeit der Datei seiner aktiven Version;
+ * sie wird beim Speichern gesetzt und während der Nutzung mit {@link #touch} fortgeschrieben.
+ * {@link #deleteUnusedBefore} entfernt damit Arbeitsbereiche, die länger nicht genutzt wurden.
+ * <p>
+ * Mit {@code broker.snapshots.shared=true} können mehrere Instanzen auf einem Host dasselbe
+ * Verzeichnis nutzen: Versionen werden dann über eine gesperrte Zählerdatei vergeben, damit sie
+ * instanzübergreifend eindeutig sind, und Änderungen werden per {@link #watch} gemeldet.
+ */
+@Component
+public class ReportSnapshotStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReportSnapshotStore.class);
+
+    private static final String SUFFIX = ".snapshot";
+    private static final String ACTIVE_SUFFIX = ".active";
+    private static final String STAGING_SUFFIX = ".tmp";
+    private static final String VERSION_FILE = "versions.seq";
+
+    private final Path directory;
+    private final boolean shared;
+    private volatile WatchService watchService;
+
+    public ReportSnapshotStore(@Value("${broker.snapshots.directory:}") String directory,
+                               @Value("${broker.snapshots.shared:false}") boolean shared) {
+        this.directory = StringUtils.hasText(directory) ? Path.of(directory) : null;
+        this.shared = shared && this.directory != null;
+    }
+
+    public boolean isEnabled() {
+        return directory != null;
+    }
+
+    /**
+     * Teilen sich mehrere Instanzen das Verzeichnis?
+     */
+    public boolean isShared() {
+        return shared;
+    }
+
+    /**
+     * Vergibt die nächste Report-Version. Im gemeinsamen Modus wird der Zähler unter einer
+     * Dateisperre im Verzeichnis fortgeschrieben, sonst nur lokal.
+     *
+     * @param local der lokale Zähler, wird auf die vergebene Version gesetzt
+     */
+    public long nextVersion(AtomicLong local) throws IOException {
+        if (!shared) {
+            return local.incrementAndGet();
+        }
+        // FileLock sperrt nur gegen andere Prozesse, innerhalb der JVM serialisiert der Monitor
+        synchronized (this) {
+            Files.createDirectories(directory);
+            try (FileChannel channel = FileChannel.open(directory.resolve(VERSION_FILE),
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+                    FileLock ignored = channel.lock()) {
+                ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES);
+                long stored = channel.read(buffer, 0) == Long.BYTES ? buffer.getLong(0) : 0;
+                long next = Math.max(stored, local.get()) + 1;
+                buffer.putLong(0, next);
+                buffer.rewind();
+                channel.write(buffer, 0);
+                local.set(next);
+                return next;
+            }
+        }
+    }
+
+    /**
+     * Schreibt den Report in eine temporäre Datei
+     *
+     * @return die temporäre Datei, {@code null} wenn die Persistenz abgeschaltet ist oder das Schreiben fehlschlägt
+     */
+    public Path stage(Report report) {
+        if (directory == null) {
+            return null;
+        }
+        Path staged = null;
+        try {
+            Files.createDirectories(directory);
+            staged = Files.createTempFile(directory, "report-", STAGING_SUFFIX);
+            long start = System.nanoTime();
+            ReportSnapshotCodec.write(report, staged);
+            logger.debug("Wrote snapshot of report {} ({} bytes) in {} µs", report.getVersion(),
+                    Files.size(staged), (System.nanoTime() - start) / 1000);
+            return staged;
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Could not write snapshot of report {}: {}", report.getVersion(), e.getMessage());
+            discard(staged);
+            return null;
+        }
+    }
+
+    /**
+     * Macht eine mit {@link #stage} geschriebene Datei zum Snapshot der Version und diese zur aktiven
+     */
+    public void commit(String workspaceId, long version, Path staged) {
+        if (save(workspaceId, version, staged)) {
+            activate(workspaceId, version);
+        }
+    }
+
+    /**
+     * Macht eine mit {@link #stage} geschriebene Datei zum Snapshot der Version, ohne den Zeiger zu ändern
+     *
+     * @return {@code false}, wenn die Datei nicht übernommen werden konnte
+     */
+    public boolean save(String workspaceId, long version, Path staged) {
+        try {
+            Files.move(staged, fileOf(workspaceId, version), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            return true;
+        } catch (IOException e) {
+            logger.warn("Could not store snapshot of workspace {}: {}", workspaceId, e.getMessage());
+            discard(staged);
+            return false;
+        }
+    }
+
+    /**
+     * Setzt den Zeiger auf eine bereits gespeicherte Version
+     *
+     * @return {@code false}, wenn es für die Version keine Datei gibt
+     */
+    public boolean activate(String workspaceId, long version) {
+        if (directory == null || !Files.exists(fileOf(workspaceId, version))) {
+            return false;
+        }
+        try {
+            writeActive(workspaceId, version);
+            return true;
+        } catch (IOException e) {
+            logger.warn("Could not activate snapshot {} of workspace {}: {}", version, workspaceId, e.getMessage());
+            return false;
+        }
+    }
+
+    private void writeActive(String workspaceId, long version) throws IOException {
+        Path staged = Files.createTempFile(directory, "active-", STAGING_SUFFIX);
+        try {
+            Files.writeString(staged, Long.toString(version));
+            Files.move(staged, activeFileOf(workspaceId), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            discard(staged);
+        }
+    }
+
+    /**
+     * Die aktive Version eines Arbeitsbereichs, {@code null} wenn kein (lesbarer) Zeiger existiert
+     */
+    private Long readActive(String workspaceId) {
+        try {
+            return Long.parseLong(Files.readString(activeFileOf(workspaceId)).trim());
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException | NumberFormatException e) {
+            logger.warn("Could not read active snapshot of workspace {}: {}", workspaceId, e.getMessage());
+            return null;
+        }
+    }
+
+    public void discard(Path staged) {
+        if (staged == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(staged);
+        } catch (IOException e) {
+            logger.warn("Could not delete {}: {}", staged, e.getMessage());
+        }
+    }
+
+    /**
+     * Löscht alle Snapshots eines Arbeitsbereichs, den Zeiger zuerst
+     */
+    public void delete(String workspaceId) {
+        if (directory != null) {
+            discard(activeFileOf(workspaceId));
+            versionsOf(workspaceId).forEach(stored -> discard(stored.file()));
+        }
+    }
+
+    /**
+     * Vermerkt die Nutzung eines Arbeitsbereichs an der Datei seiner aktiven Version. Der Zeiger bleibt
+     * unverändert, damit der Watcher anderer Instanzen nicht anschlägt.
+     */
+    public void touch(String workspaceId) {
+        Long active = directory != null ? readActive(workspaceId) : null;
+        if (active == null) {
+            return;
+        }
+        try {
+            Files.setLastModifiedTime(fileOf(workspaceId, active), FileTime.from(Instant.now()));
+        } catch (NoSuchFileException e) {
+            // inzwischen entfernt
+        } catch (IOException e) {
+            logger.debug("Could not mark snapshot of workspace {} as used: {}", workspaceId, e.getMessage());
+        }
+    }
+
+    /**
+     * Löscht alle Snapshots der Arbeitsbereiche, die seit {@code cutoff} nicht mehr genutzt wurden
+     *
+     * @param inUse Arbeitsbereiche, die unabhängig vom Alter ihrer Dateien erhalten bleiben
+     * @return die entfernten Arbeitsbereiche
+     */
+    public List<String> deleteUnusedBefore(Instant cutoff, Predicate<String> inUse) {
+        List<String> deleted = new ArrayList<>();
+        FileTime limit = FileTime.from(cutoff);
+        for (Path pointer : listFiles()) {
+            String name = pointer.getFileName().toString();
+            if (!name.endsWith(ACTIVE_SUFFIX)) {
+                continue;
+            }
+            String workspaceId = name.substring(0, name.length() - ACTIVE_SUFFIX.length());
+            Long active = readActive(workspaceId);
+            FileTime lastUsed = active != null ? lastModified(fileOf(workspaceId, active)) : lastModified(pointer);
+            if (lastUsed.compareTo(limit) < 0 && !inUse.test(workspaceId)) {
+                logger.info("Deleting report snapshots of workspace {}, unused since {}", workspaceId, lastUsed);
+                delete(workspaceId);
+                deleted.add(workspaceId);
+            }
+        }
+        return deleted;
+    }
+
+    /**
+     * Löscht die Snapshots der aus dem Verlauf gefallenen Versionen; die aktive bleibt immer erhalten.
+     * Neuere Versionen bleiben unberührt, sie können von einer anderen Instanz stammen.
+     *
+     * @param oldest älteste noch gehaltene Version
+     */
+    public void deleteVersionsBefore(String workspaceId, long oldest) {
+        if (directory == null) {
+            return;
+        }
+        Long active = readActive(workspaceId);
+        for (StoredVersion stored : versionsOf(workspaceId)) {
+            if (stored.version() < oldest && !Long.valueOf(stored.version()).equals(active)) {
+                discard(stored.file());
+            }
+        }
+    }
+
+    /**
+     * Mappt den Snapshot der aktiven Version eines Arbeitsbereichs
+     *
+     * @return der Report oder {@code null}, wenn es keinen (lesbaren) Snapshot gibt
+     */
+    public Report load(String workspaceId) {
+        if (directory == null) {
+            return null;
+        }
+        Long version = readActive(workspaceId);
+        return version != null ? read(fileOf(workspaceId, version)) : null;
+    }
+
+    /**
+     * Mappt alle gespeicherten Versionen eines Arbeitsbereichs, die neueste zuerst
+     */
+    public List<Report> loadVersions(String workspaceId) {
+        List<Report> reports = new ArrayList<>();
+        if (directory == null) {
+            return reports;
+        }
+        for (StoredVersion stored : versionsOf(workspaceId)) {
+            Report report = read(stored.file());
+            if (report != null) {
+                reports.add(report);
+            }
+        }
+        reports.sort(Comparator.comparingLong(Report::getVersion).reversed());
+        return reports;
+    }
+
+    /**
+     * Höchste gespeicherte Version, aus den Dateinamen bestimmt; 0 wenn es keine gibt
+     */
+    public long getHighestVersion() {
+        return listFiles().stream()
+                .map(StoredVersion::parse)
+                .filter(Objects::nonNull)
+                .mapToLong(StoredVersion::version)
+                .max().orElse(0);
+    }
+
+    private Report read(Path file) {
+        try {
+            return ReportSnapshotCodec.read(file);
+        } catch (NoSuchFileException e) {
+            return null; // inzwischen entfernt
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Could not read report snapshot {}: {}", file, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Meldet Änderungen an Snapshots im Verzeichnis, auch die anderer Instanzen
+     */
+    public interface Listener {
+
+        void snapshotChanged(String workspaceId);
+
+        /**
+         * Ereignisse sind verloren gegangen; alle Arbeitsbereiche müssen abgeglichen werden
+         */
+        void snapshotsChanged();
+    }
+
+    /**
+     * Beobachtet das Verzeichnis in einem Daemon-Thread
+     */
+    public void watch(Listener listener) {
+        if (directory == null) {
+            return;
+        }
+        try {
+            Files.createDirectories(directory);
+            WatchService service = directory.getFileSystem().newWatchService();
+            directory.register(service, StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+            this.watchService = service;
+            Thread watcher = new Thread(() -> dispatch(service, listener), "report-snapshot-watcher");
+            watcher.setDaemon(true);
+            watcher.start();
+        } catch (IOException e) {
+            logger.warn("Could not watch report snapshots in {}: {}", directory, e.getMessage());
+        }
+    }
+
+    private void dispatch(WatchService service, Listener listener) {
+        try {
+            while (true) {
+                WatchKey key = service.take();
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    try {
+                        if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                            listener.snapshotsChanged();
+                        } else if (event.context() instanceof Path changed && changed.toString().endsWith(ACTIVE_SUFFIX)) {
+                            // Versionsdateien ändern sich nie, maßgeblich ist der Zeiger
+                            String name = changed.toString();
+                            listener.snapshotChanged(name.substring(0, name.length() - ACTIVE_SUFFIX.length()));
+                        }
+                    } catch (RuntimeException e) {
+                        logger.warn("Could not apply snapshot change {}: {}", event.context(), e.getMessage());
+                    }
+                }
+                if (!key.reset()) {
+                    logger.warn("Report snapshot directory {} is no longer watched", directory);
+                    return;
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // beendet
+        }
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        WatchService service = watchService;
+        if (service != null) {
+            service.close();
+        }
+    }
+
+    /**
+     * Mappt die aktiven Snapshots aller Arbeitsbereiche, die zuletzt umgeschalteten zuerst.
+     * Unlesbare Dateien (Formatwechsel, Abbruch beim Schreiben) werden gelöscht, Snapshots im
+     * früheren Format (eine Datei je Arbeitsbereich) umbenannt.
+     */
+    public List<Report> restore() {
+        List<Report> reports = new ArrayList<>();
+        if (directory == null || !Files.isDirectory(directory)) {
+            return reports;
+        }
+
+        long start = System.nanoTime();
+        repair(listFiles());
+        List<Path> pointers = listFiles().stream()
+                .filter(file -> file.getFileName().toString().endsWith(ACTIVE_SUFFIX))
+                .sorted(Comparator.comparing(ReportSnapshotStore::lastModified).reversed())
+                .toList();
+        for (Path pointer : pointers) {
+            String name = pointer.getFileName().toString();
+            String workspaceId = name.substring(0, name.length() - ACTIVE_SUFFIX.length());
+            Report report = load(workspaceId);
+            if (report == null || !report.getWorkspaceId().equals(workspaceId)) {
+                logger.warn("Discarding report snapshots of workspace {}, the active version is unreadable", workspaceId);
+                delete(workspaceId);
+                continue;
+            }
+            reports.add(report);
+        }
+        if (!reports.isEmpty()) {
+            logger.info("Restored {} report snapshot(s) from {} in {} ms", reports.size(), directory,
+                    (System.nanoTime() - start) / 1_000_000);
+        }
+        return reports;
+    }
+
+    /**
+     * Räumt das Verzeichnis vor dem Einlesen auf: Reste abgebrochener Schreibvorgänge werden gelöscht,
+     * Dateien ohne Zeiger (früheres Format, Abbruch vor dem Setzen des Zeigers) werden übernommen.
+     */
+    private void repair(List<Path> files) {
+        List<String> pointed = files.stream()
+                .map(file -> file.getFileName().toString())
+                .filter(name -> name.endsWith(ACTIVE_SUFFIX))
+                .map(name -> name.substring(0, name.length() - ACTIVE_SUFFIX.length()))
+                .toList();
+        for (Path file : files) {
+            String name = file.getFileName().toString();
+            if (name.endsWith(STAGING_SUFFIX)) {
+                discard(file);
+                continue;
+            }
+            StoredVersion stored = StoredVersion.parse(file);
+            if (!name.endsWith(SUFFIX) || stored != null && pointed.contains(stored.workspaceId())) {
+                continue;
+            }
+            try {
+                Report report = ReportSnapshotCodec.read(file);
+                Path target = fileOf(report.getWorkspaceId(), report.getVersion());
+                if (!file.equals(target)) {
+                    if (!file.equals(directory.resolve(report.getWorkspaceId() + SUFFIX))) {
+                        throw new IOException("Snapshot belongs to workspace " + report.getWorkspaceId());
+                    }
+                    Files.move(file, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                }
+                Long active = readActive(report.getWorkspaceId());
+                if (active == null || active < report.getVersion()) {
+                    writeActive(report.getWorkspaceId(), report.getVersion());
+                }
+            } catch (IOException | RuntimeException e) {
+                logger.warn("Discarding unreadable report snapshot {}: {}", file, e.getMessage());
+                discard(file);
+            }
+        }
+    }
+
+    private List<Path> listFiles() {
+        if (directory == null || !Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> listing = Files.list(directory)) {
+            return listing.filter(Files::isRegularFile).toList();
+        } catch (IOException e) {
+            logger.warn("Could not list report snapshots in {}: {}", directory, e.getMessage());
+            return List.of();
+        }
+    }
+
+    private List<StoredVersion> versionsOf(String workspaceId) {
+        List<StoredVersion> versions = new ArrayList<>();
+        try (DirectoryStream<Path> listing = Files.newDirectoryStream(directory, workspaceId + ".*" + SUFFIX)) {
+            for (Path file : listing) {
+                StoredVersion stored = StoredVersion.parse(file);
+                if (stored != null && stored.workspaceId().equals(workspaceId)) {
+                    versions.add(stored);
+                }
+            }
+        } catch (NoSuchFileException e) {
+            // noch nichts gespeichert
+        } catch (IOException e) {
+            logger.warn("Could not list report snapshots of workspace {}: {}", workspaceId, e.getMessage());
+        }
+        return versions;
+    }
+
+    private Path fileOf(String workspaceId, long version) {
+        // Arbeitsbereichs-IDs sind auf [A-Za-z0-9._-] beschränkt und damit gültige Dateinamen
+        return directory.resolve(workspaceId + "." + version + SUFFIX);
+    }
+
+    private Path activeFileOf(String workspaceId) {
+        return directory.resolve(workspaceId + ACTIVE_SUFFIX);
+    }
+
+    /**
+     * Arbeitsbereich und Version aus dem Namen einer Versionsdatei; die Version steht hinter dem letzten Punkt
+     */
+    private record StoredVersion(String workspaceId, long version, Path file) {
+
+        static StoredVersion parse(Path file) {
+            String name = file.getFileName().toString();
+            if (!name.endsWith(SUFFIX)) {
+                return null;
+            }
+            String stem = name.substring(0, name.length() - SUFFIX.length());
+            int dot = stem.lastIndexOf('.');
+            if (dot <= 0 || dot == stem.length() - 1 || !stem.substring(dot + 1).chars().allMatch(Character::isDigit)) {
+                return null;
+            }
+            try {
+                return new StoredVersion(stem.substring(0, dot), Long.parseLong(stem.substring(dot + 1)), file);
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+    }
+
+    private static FileTime lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+}
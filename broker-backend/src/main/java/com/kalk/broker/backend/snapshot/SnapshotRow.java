@@ -0,0 +1,79 @@
+package com.kalk.broker.backend.snapshot;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Unveränderliche Datenzeile, die ihre Werte direkt aus einem gemappten Snapshot liest.
+ * Belegt selbst nur wenige Bytes auf dem Heap; die Daten liegen im Page Cache des Betriebssystems.
+ */
+public final class SnapshotRow extends AbstractMap<String, String> {
+
+    private final MappedColumns columns;
+    private final int row;
+
+    SnapshotRow(MappedColumns columns, int row) {
+        this.columns = columns;
+        this.row = row;
+    }
+
+    @Override
+    public String get(Object key) {
+        int column = columns.indexOf(key);
+        return column >= 0 ? columns.value(column, row) : null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        int column = columns.indexOf(key);
+        return column >= 0 && columns.isPresent(column, row);
+    }
+
+    @Override
+    public Set<Entry<String, String>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<String, String>> iterator() {
+                return new Iterator<>() {
+                    private int next = advance(0);
+
+                    @Override
+                    public boolean hasNext() {
+                        return next < columns.columnCount();
+                    }
+
+                    @Override
+                    public Entry<String, String> next() {
+                        if (!hasNext()) {
+                            throw new NoSuchElementException();
+                        }
+                        int column = next;
+                        next = advance(column + 1);
+                        return new SimpleImmutableEntry<>(columns.name(column), columns.value(column, row));
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                int size = 0;
+                for (int column = 0; column < columns.columnCount(); column++) {
+                    if (columns.isPresent(column, row)) {
+                        size++;
+                    }
+                }
+                return size;
+            }
+        };
+    }
+
+    private int advance(int column) {
+        while (column < columns.columnCount() && !columns.isPresent(column, row)) {
+            column++;
+        }
+        return column;
+    }
+}
@@ -0,0 +1,93 @@
+package com.kalk.broker.backend.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+
+import com.kalk.broker.backend.config.AppConstants;
+import com.kalk.broker.backend.exception.InvalidQueryException;
+import com.kalk.broker.backend.exception.StaleCursorException;
+import com.kalk.broker.backend.pojo.Page;
+
+/**
+ * Utility class for cursor based pagination.
+ * A cursor encodes the report version, the offset of the next item and a fingerprint of the query,
+ * so a cursor can only be used with the query and the report version it was created for.
+ */
+public final class PageUtils {
+
+    private static final String CURSOR_PREFIX = "c1";
+
+    private PageUtils() {
+        // Utility class - prevent instantiation
+    }
+
+    /**
+     * Returns one page of an already filtered and sorted result.
+     *
+     * @param items the complete result of the query
+     * @param version the report version the result was created from
+     * @param query a canonical description of the query (filters and sort order)
+     * @param cursor the cursor of the previous page, or {@code null} for the first page
+     * @param limit the requested page size, or {@code null} for the default
+     * @return the requested page
+     * @throws InvalidQueryException if the cursor is malformed or belongs to another query
+     * @throws StaleCursorException if the cursor belongs to an older report version
+     */
+    public static <T> Page<T> page(List<T> items, long version, String query, String cursor, Integer limit) {
+        int pageSize = resolveLimit(limit);
+        int offset = cursor == null || cursor.isBlank() ? 0 : decodeCursor(cursor, version, query);
+        int from = Math.min(offset, items.size());
+        int to = Math.min(from + pageSize, items.size());
+
+        String nextCursor = to < items.size() ? encodeCursor(version, to, query) : null;
+        return new Page<>(List.copyOf(items.subList(from, to)), pageSize, items.size(), nextCursor, version);
+    }
+
+    public static int resolveLimit(Integer limit) {
+        if (limit == null) {
+            return AppConstants.Pagination.DEFAULT_LIMIT;
+        }
+        if (limit < 1) {
+            throw new InvalidQueryException("limit muss größer als 0 sein");
+        }
+        return Math.min(limit, AppConstants.Pagination.MAX_LIMIT);
+    }
+
+    static String encodeCursor(long version, int offset, String query) {
+        String raw = CURSOR_PREFIX + ":" + version + ":" + offset + ":" + fingerprint(query);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static int decodeCursor(String cursor, long version, String query) {
+        String[] parts;
+        try {
+            parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(":");
+        } catch (IllegalArgumentException e) {
+            throw new InvalidQueryException(AppConstants.ErrorMessages.INVALID_CURSOR);
+        }
+        if (parts.length != 4 || !CURSOR_PREFIX.equals(parts[0])) {
+            throw new InvalidQueryException(AppConstants.ErrorMessages.INVALID_CURSOR);
+        }
+
+        long cursorVersion;
+        int offset;
+        try {
+            cursorVersion = Long.parseLong(parts[1]);
+            offset = Integer.parseInt(parts[2]);
+        } catch (NumberFormatException e) {
+            throw new InvalidQueryException(AppConstants.ErrorMessages.INVALID_CURSOR);
+        }
+        if (cursorVersion != version) {
+            throw new StaleCursorException(AppConstants.ErrorMessages.STALE_CURSOR);
+        }
+        if (offset < 0 || !fingerprint(query).equals(parts[3])) {
+            throw new InvalidQueryException(AppConstants.ErrorMessages.INVALID_CURSOR);
+        }
+        return offset;
+    }
+
+    private static String fingerprint(String query) {
+        return Integer.toHexString(query.hashCode());
+    }
+}
@@ -9,6 +9,7 @@ import java.time.format.DateTimeParseException;
 import java.time.temporal.ChronoField;
 import java.time.temporal.TemporalAccessor;
 import java.util.Currency;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
@@ -36,6 +37,10 @@ public class ReportUtils {
             DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss v")
     );
 
+    private static final String[] EXCHANGE_RATE_SECTIONS = {
+            "wechselkurse_der_basiswhrung", "base_currency_exchange_rate"
+    };
+
     private ReportUtils() {
     }
 
@@ -56,6 +61,36 @@ public class ReportUtils {
                 .orElse(Currency.getInstance(Locale.getDefault()).getCurrencyCode());
     }
 
+    /**
+     * Retrieves the exchange rates to the base currency from the report.
+     * The base currency itself is always contained with a rate of 1.
+     *
+     * @param report the report from which to extract the exchange rates
+     * @return map of currency code to the value of one unit in the base currency
+     */
+    public static Map<String, BigDecimal> getExchangeRates(Report report) {
+        Map<String, BigDecimal> rates = new HashMap<>();
+        if (report.hasSection("kontoinformation")) {
+            rates.put(getBaseCurrency(report), BigDecimal.ONE);
+        }
+
+        for (String sectionName : EXCHANGE_RATE_SECTIONS) {
+            SectionData section = report.getSection(sectionName);
+            if (section == null) {
+                continue;
+            }
+            for (Map<String, String> row : section.getDataRows()) {
+                String currency = firstValue(row, "Währung", "Currency");
+                BigDecimal rate = parseBigDecimal(firstValue(row, "Kurs", "Rate"));
+                if (currency != null && rate != null) {
+                    rates.put(currency, rate);
+                }
+            }
+            break;
+        }
+        return rates;
+    }
+
     /**
      * Retrieves the report date from the report.
      * If not found, defaults to the current date and time.
@@ -81,9 +116,17 @@ public class ReportUtils {
      * @return the parsed LocalDateTime or current date and time if parsing fails
      */
     public static LocalDateTime parseLocalDateTime(String dateString) {
-        return parseTemporal(dateString)
-                .map(ReportUtils::createLocalDateTime)
-                .orElse(LocalDateTime.now());
+        return tryParseLocalDateTime(dateString).orElse(LocalDateTime.now());
+    }
+
+    /**
+     * Parses a date string into a LocalDateTime object.
+     *
+     * @param dateString the date string to parse
+     * @return the parsed LocalDateTime, empty if the string is not a supported date
+     */
+    public static Optional<LocalDateTime> tryParseLocalDateTime(String dateString) {
+        return parseTemporal(dateString).map(ReportUtils::createLocalDateTime);
     }
 
     private static LocalDateTime createLocalDateTime(TemporalAccessor temporalAccessor) {
@@ -131,6 +174,23 @@ public class ReportUtils {
         }
     }
 
+    /**
+     * Returns the trimmed value of the first key that is present and not blank
+     *
+     * @param row the data row
+     * @param keys the candidate column names, in order of preference
+     * @return the value or null if none of the keys has a value
+     */
+    public static String firstValue(Map<String, String> row, String... keys) {
+        for (String key : keys) {
+            String value = row.get(key);
+            if (value != null && !value.trim().isEmpty()) {
+                return value.trim();
+            }
+        }
+        return null;
+    }
+
     public static Optional<String> getRowValue(Map<String, String> row, ReportField field) {
         for (String key : field.getKeys()) {
             String value = row.get(key);
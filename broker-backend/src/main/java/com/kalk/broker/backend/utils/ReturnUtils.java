@@ -0,0 +1,187 @@
+package com.kalk.broker.backend.utils;
+
+/**
+ * Utility class for return calculations on primitive arrays.
+ * Provides the net present value of dated cash flows and the money-weighted return (XIRR),
+ * solved with Newton's method and a bracketing Brent fallback.
+ */
+public final class ReturnUtils {
+
+    private static final double DAYS_PER_YEAR = 365.0;
+    private static final double TOLERANCE = 1e-10;
+    private static final int MAX_ITERATIONS = 100;
+    private static final double MIN_RATE = -0.999999;
+    private static final double MAX_RATE = 1e6; // Suchgrenze der annualisierten Rendite (100.000.000 %)
+
+    /**
+     * Minimum span in days between the first and the last cash flow for an annualized rate to be meaningful.
+     */
+    public static final int MIN_PERIOD_DAYS = 30;
+
+    private ReturnUtils() {
+    }
+
+    /**
+     * Computes the annualized money-weighted return (internal rate of return) of dated cash flows.
+     *
+     * @param days the days of the cash flows (epoch days, ascending)
+     * @param flows the cash flows, negative for money put in and positive for money taken out
+     *              (including the final valuation)
+     * @param count the number of cash flows to use from the arrays
+     * @return the annual rate, or {@code NaN} if it is not meaningful: the flows span less than
+     *         {@value #MIN_PERIOD_DAYS} days, have no sign change, or have no root within (-100 %, 100.000.000 %]
+     */
+    public static double irr(long[] days, double[] flows, int count) {
+        if (count < 2 || days[count - 1] - days[0] < MIN_PERIOD_DAYS || !hasSignChange(flows, count)) {
+            return Double.NaN;
+        }
+
+        double[] years = new double[count];
+        for (int i = 0; i < count; i++) {
+            years[i] = years(days, i);
+        }
+
+        double rate = newton(years, flows, count, 0.1);
+        if (Double.isFinite(rate)) {
+            return rate;
+        }
+        return brent(years, flows, count);
+    }
+
+    private static double newton(double[] years, double[] flows, int count, double guess) {
+        double rate = guess;
+        for (int iteration = 0; iteration < MAX_ITERATIONS; iteration++) {
+            double logFactor = Math.log1p(rate);
+            double value = 0;
+            double derivative = 0;
+            for (int i = 0; i < count; i++) {
+                double discounted = flows[i] * Math.exp(-years[i] * logFactor);
+                value += discounted;
+                derivative -= years[i] * discounted / (1 + rate);
+            }
+
+            if (derivative == 0 || !Double.isFinite(value) || !Double.isFinite(derivative)) {
+                return Double.NaN;
+            }
+
+            double next = rate - value / derivative;
+            if (!Double.isFinite(next) || next <= MIN_RATE || next > MAX_RATE) {
+                return Double.NaN;
+            }
+            if (Math.abs(next - rate) < TOLERANCE) {
+                return next;
+            }
+            rate = next;
+        }
+        return Double.NaN;
+    }
+
+    private static double brent(double[] years, double[] flows, int count) {
+        // Bracket suchen: von -99 % aufwärts, die obere Grenze wird verdoppelt
+        double a = MIN_RATE;
+        double fa = npv(years, flows, count, a);
+        double b = 1;
+        double fb = npv(years, flows, count, b);
+        while (Math.signum(fa) == Math.signum(fb) && b < MAX_RATE) {
+            a = b;
+            fa = fb;
+            b = Math.min(b * 2, MAX_RATE);
+            fb = npv(years, flows, count, b);
+        }
+        if (!Double.isFinite(fa) || !Double.isFinite(fb)) {
+            return Double.NaN;
+        }
+        if (Math.signum(fa) == Math.signum(fb)) {
+            // Keine Nullstelle im Suchbereich: die Rendite liegt außerhalb und ist nicht aussagekräftig
+            return Double.NaN;
+        }
+
+        double c = a;
+        double fc = fa;
+        double d = b - a;
+        double e = d;
+        for (int iteration = 0; iteration < MAX_ITERATIONS; iteration++) {
+            if (Math.signum(fb) == Math.signum(fc)) {
+                c = a;
+                fc = fa;
+                d = b - a;
+                e = d;
+            }
+            if (Math.abs(fc) < Math.abs(fb)) {
+                a = b;
+                b = c;
+                c = a;
+                fa = fb;
+                fb = fc;
+                fc = fa;
+            }
+
+            double tolerance = 2 * Math.ulp(b) + TOLERANCE / 2;
+            double middle = (c - b) / 2;
+            if (Math.abs(middle) <= tolerance || fb == 0) {
+                return b;
+            }
+
+            if (Math.abs(e) >= tolerance && Math.abs(fa) > Math.abs(fb)) {
+                // Inverse quadratische Interpolation bzw. Sekantenschritt
+                double s = fb / fa;
+                double p;
+                double q;
+                if (a == c) {
+                    p = 2 * middle * s;
+                    q = 1 - s;
+                } else {
+                    double r = fb / fc;
+                    double t = fa / fc;
+                    p = s * (2 * middle * t * (t - r) - (b - a) * (r - 1));
+                    q = (t - 1) * (r - 1) * (s - 1);
+                }
+                if (p > 0) {
+                    q = -q;
+                } else {
+                    p = -p;
+                }
+                if (2 * p < Math.min(3 * middle * q - Math.abs(tolerance * q), Math.abs(e * q))) {
+                    e = d;
+                    d = p / q;
+                } else {
+                    d = middle;
+                    e = d;
+                }
+            } else {
+                // Bisektion
+                d = middle;
+                e = d;
+            }
+
+            a = b;
+            fa = fb;
+            b += Math.abs(d) > tolerance ? d : Math.copySign(tolerance, middle);
+            fb = npv(years, flows, count, b);
+        }
+        return b;
+    }
+
+    private static double npv(double[] years, double[] flows, int count, double rate) {
+        double logFactor = Math.log1p(rate);
+        double npv = 0;
+        for (int i = 0; i < count; i++) {
+            npv += flows[i] * Math.exp(-years[i] * logFactor);
+        }
+        return npv;
+    }
+
+    private static boolean hasSignChange(double[] flows, int count) {
+        boolean positive = false;
+        boolean negative = false;
+        for (int i = 0; i < count; i++) {
+            positive |= flows[i] > 0;
+            negative |= flows[i] < 0;
+        }
+        return positive && negative;
+    }
+
+    private static double years(long[] days, int index) {
+        return (days[index] - days[0]) / DAYS_PER_YEAR;
+    }
+}
@@ -0,0 +1,78 @@
+package com.kalk.broker.backend.workspace;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Unveränderliche Datenzeile aus gemeinsamem Schema und Werte-Array.
+ * Gegenüber einer HashMap entfallen Tabelle und Einträge je Zeile; die Spaltennamen liegen
+ * einmal im {@link RowSchema}, das sich alle Zeilen gleichen Aufbaus teilen.
+ */
+public final class CompactRow extends AbstractMap<String, String> {
+
+    private final RowSchema schema;
+    private final String[] values;
+
+    CompactRow(RowSchema schema, String[] values) {
+        this.schema = schema;
+        this.values = values;
+    }
+
+    RowSchema schema() {
+        return schema;
+    }
+
+    String valueAt(int column) {
+        return values[column];
+    }
+
+    @Override
+    public String get(Object key) {
+        int column = schema.indexOf(key);
+        return column >= 0 ? values[column] : null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return schema.indexOf(key) >= 0;
+    }
+
+    @Override
+    public int size() {
+        return values.length;
+    }
+
+    @Override
+    public Set<Entry<String, String>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<String, String>> iterator() {
+                return new Iterator<>() {
+                    private int next;
+
+                    @Override
+                    public boolean hasNext() {
+                        return next < values.length;
+                    }
+
+                    @Override
+                    public Entry<String, String> next() {
+                        if (!hasNext()) {
+                            throw new NoSuchElementException();
+                        }
+                        int column = next++;
+                        return new SimpleImmutableEntry<>(schema.name(column), values[column]);
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return values.length;
+            }
+        };
+    }
+}
@@ -0,0 +1,95 @@
+package com.kalk.broker.backend.workspace;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.kalk.broker.backend.pojo.Report;
+import com.kalk.broker.backend.pojo.SectionData;
+import org.springframework.stereotype.Component;
+
+/**
+ * Überführt einen frisch geparsten Report in eine kompakte, unveränderliche Fassung für den
+ * Versionsverlauf: Zeilen werden zu {@link CompactRow}s mit gemeinsamen Schemata, Werte und
+ * Spaltennamen werden interniert. Aufeinanderfolgende Uploads (z.B. Monatsauszüge) teilen sich
+ * so den Großteil ihrer Zeichenketten und alle Schemata.
+ * <p>
+ * {@link String#intern()} hält die Zeichenketten nur schwach; sie werden freigegeben, sobald
+ * keine Version sie mehr referenziert.
+ */
+@Component
+public class ReportCompactor {
+
+    private static final int MAX_SCHEMAS = 4096;
+
+    private final Map<List<String>, RowSchema> schemas = new ConcurrentHashMap<>();
+
+    /**
+     * @param report ein noch nicht eingefrorener Report
+     * @return ein neuer, eingefrorener Report mit denselben Inhalten
+     */
+    public Report compact(Report report) {
+        Report compacted = new Report();
+        compacted.setVersion(report.getVersion());
+        compacted.setFingerprint(report.getFingerprint());
+        compacted.setFileName(report.getFileName());
+        compacted.setWorkspaceId(report.getWorkspaceId());
+        compacted.setStatement(report.getStatement());
+        report.getSections().forEach((key, section) -> compacted.addSection(key, compact(section)));
+        return compacted.freeze();
+    }
+
+    private SectionData compact(SectionData section) {
+        SectionData compacted = new SectionData(section.getSectionName());
+        compacted.setHeaders(section.getHeaders().stream().map(ReportCompactor::intern).toList());
+        section.getMetadata().forEach((name, value) -> compacted.addMetadata(intern(name), intern(value)));
+
+        List<Map<String, String>> rows = new ArrayList<>(section.getDataRows().size());
+        List<String> names = new ArrayList<>();
+        RowSchema schema = null;
+        for (Map<String, String> row : section.getDataRows()) {
+            names.clear();
+            names.addAll(row.keySet());
+            // Zeilen einer Sektion haben fast immer dasselbe Schema
+            if (schema == null || !matches(schema, names)) {
+                schema = schemaOf(names);
+            }
+            String[] values = new String[schema.size()];
+            for (int column = 0; column < values.length; column++) {
+                values[column] = intern(row.get(schema.name(column)));
+            }
+            rows.add(new CompactRow(schema, values));
+        }
+        compacted.setDataRows(rows);
+        return compacted.freezeWithImmutableRows();
+    }
+
+    private RowSchema schemaOf(List<String> names) {
+        RowSchema schema = schemas.get(names);
+        if (schema != null) {
+            return schema;
+        }
+        if (schemas.size() >= MAX_SCHEMAS) {
+            schemas.clear();
+        }
+        List<String> key = names.stream().map(ReportCompactor::intern).toList();
+        return schemas.computeIfAbsent(key, RowSchema::new);
+    }
+
+    private static boolean matches(RowSchema schema, List<String> names) {
+        if (schema.size() != names.size()) {
+            return false;
+        }
+        for (int column = 0; column < names.size(); column++) {
+            if (!schema.name(column).equals(names.get(column))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String intern(String value) {
+        return value != null ? value.intern() : null;
+    }
+}
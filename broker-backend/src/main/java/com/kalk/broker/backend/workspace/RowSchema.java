@@ -0,0 +1,35 @@
+package com.kalk.broker.backend.workspace;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Spaltennamen einer {@link CompactRow} in Iterationsreihenfolge, mit Index für den Zugriff per Name
+ */
+final class RowSchema {
+
+    private final String[] names;
+    private final Map<String, Integer> indexByName;
+
+    RowSchema(List<String> names) {
+        this.names = names.toArray(String[]::new);
+        this.indexByName = new HashMap<>();
+        for (int i = 0; i < this.names.length; i++) {
+            indexByName.put(this.names[i], i);
+        }
+    }
+
+    int indexOf(Object name) {
+        Integer index = indexByName.get(name);
+        return index != null ? index : -1;
+    }
+
+    String name(int column) {
+        return names[column];
+    }
+
+    int size() {
+        return names.length;
+    }
+}
@@ -0,0 +1,531 @@
+package com.kalk.broker.backend.workspace;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.kalk.broker.backend.cache.ReportCache;
+import com.kalk.broker.backend.cache.ResponseByteCache;
+import com.kalk.broker.backend.events.ReportEventBroadcaster;
+import com.kalk.broker.backend.events.ReportVersionEvent;
+import com.kalk.broker.backend.pojo.Report;
+import com.kalk.broker.backend.pojo.SectionData;
+import com.kalk.broker.backend.snapshot.ReportSnapshotStore;
+import com.kalk.broker.backend.snapshot.SnapshotRow;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Hält den aktuellen Report je Arbeitsbereich, dazu die letzten {@code broker.workspaces.history-size}
+ * hochgeladenen Versionen. Zwischen ihnen kann ohne erneutes Parsen umgeschaltet werden; die
+ * abgeleiteten Daten einer Version bleiben dabei im Cache, da sie über die Version adressiert sind.
+ * Verworfen werden sie erst, wenn die Version aus dem Verlauf fällt.
+ * <p>
+ * Reports sind unveränderliche Snapshots ({@link Report#freeze()}); je Arbeitsbereich wird der
+ * aktuelle Snapshot atomar in einer {@link ConcurrentHashMap} ersetzt. Lesende Anfragen kommen
+ * damit ohne Sperre aus und sehen immer einen vollständigen Report; nur Uploads, Löschen und
+ * Verdrängen sind synchronisiert.
+ * <p>
+ * Der Speicherbedarf jedes Reports wird beim Einstellen geschätzt; übersteigt die Summe das
+ * globale Budget, werden die am längsten nicht genutzten Arbeitsbereiche verdrängt (LRU).
+ * Arbeitsbereiche ohne Zugriff innerhalb der Leerlaufzeit werden ebenfalls entfernt. Mit einem
+ * Report werden auch seine abgeleiteten Daten und gecachten Antworten verworfen.
+ * <p>
+ * Ist der {@link ReportSnapshotStore} aktiv, wird jede eingestellte Version als Snapshot gespeichert;
+ * Umschalten setzt dort nur den Zeiger auf die aktive Version. Die Datei einer Version wird gelöscht,
+ * sobald sie aus dem Verlauf fällt. Verdrängen gibt nur den Speicher frei: die Snapshots bleiben
+ * erhalten und werden beim nächsten Zugriff samt Verlauf wieder gemappt. Alle Dateien eines
+ * Arbeitsbereichs werden beim expliziten Entfernen gelöscht, außerdem nach {@code broker.snapshots.retention}
+ * ohne Nutzung (gehaltene Arbeitsbereiche vermerken ihre Nutzung minütlich an der Datei). Beim Start werden die
+ * gespeicherten Arbeitsbereiche (zuletzt geändert zuerst, im Rahmen des Budgets) wieder eingestellt.
+ * <p>
+ * Im gemeinsamen Modus ({@code broker.snapshots.shared}) teilen sich mehrere Instanzen das
+ * Verzeichnis. Reports werden dann bei Bedarf aus dem Verzeichnis gemappt, auch der eigene Upload
+ * wird nach dem Speichern durch die gemappte Fassung ersetzt. Änderungen anderer Instanzen kommen
+ * über den Verzeichnis-Watcher an.
+ */
+@Component
+public class WorkspaceReportStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(WorkspaceReportStore.class);
+
+    // Schätzwerte für den Heap-Bedarf einer Datenzeile (Map mit String-Werten)
+    private static final int ROW_OVERHEAD_BYTES = 64;
+    private static final int ENTRY_OVERHEAD_BYTES = 48;
+    private static final int STRING_OVERHEAD_BYTES = 40;
+    private static final int SNAPSHOT_ROW_BYTES = 24; // Sicht auf einen gemappten Snapshot, Daten liegen außerhalb des Heaps
+    private static final int COMPACT_ROW_BYTES = 40; // CompactRow mit Werte-Array, zzgl. 4 Bytes je Spalte
+    private static final long SWEEP_INTERVAL_NANOS = Duration.ofMinutes(1).toNanos();
+    private static final long RETENTION_INTERVAL_NANOS = Duration.ofHours(1).toNanos();
+
+    private final ReportCache reportCache;
+    private final ResponseByteCache responseByteCache;
+    private final ReportSnapshotStore snapshotStore;
+    private final ReportEventBroadcaster eventBroadcaster;
+    private final long budgetBytes;
+    private final long idleTimeoutNanos;
+    private final int historySize;
+    private final Duration retention;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicLong snapshotChanges = new AtomicLong(); // Zähler der Änderungen am Verzeichnis (Löschen, Watcher)
+    private long highestSnapshotVersion; // auch von Snapshots, die beim Start nicht eingestellt wurden
+    private long usedBytes; // guarded by this
+    private volatile long lastSweep = System.nanoTime();
+    private long lastRetentionSweep = System.nanoTime(); // guarded by this
+
+    public WorkspaceReportStore(ReportCache reportCache, ResponseByteCache responseByteCache,
+                                ReportSnapshotStore snapshotStore, ReportEventBroadcaster eventBroadcaster,
+                                @Value("${broker.workspaces.memory-budget:1GB}") DataSize budget,
+                                @Value("${broker.workspaces.idle-timeout:2h}") Duration idleTimeout,
+                                @Value("${broker.workspaces.history-size:5}") int historySize,
+                                @Value("${broker.snapshots.retention:30d}") Duration retention) {
+        this.reportCache = reportCache;
+        this.responseByteCache = responseByteCache;
+        this.snapshotStore = snapshotStore;
+        this.eventBroadcaster = eventBroadcaster;
+        this.budgetBytes = budget.toBytes();
+        this.idleTimeoutNanos = idleTimeout.toNanos();
+        this.historySize = Math.max(1, historySize);
+        this.retention = retention;
+    }
+
+    @PostConstruct
+    synchronized void restoreSnapshots() {
+        if (snapshotStore.isShared()) {
+            // andere Instanzen nutzen die Dateien weiter; geladen wird bei Bedarf
+            snapshotStore.watch(new ReportSnapshotStore.Listener() {
+                @Override
+                public void snapshotChanged(String workspaceId) {
+                    reloadSnapshot(workspaceId);
+                }
+
+                @Override
+                public void snapshotsChanged() {
+                    snapshotChanges.incrementAndGet();
+                    entries.keySet().forEach(WorkspaceReportStore.this::reloadSnapshot);
+                }
+            });
+            return;
+        }
+        deleteUnusedSnapshots();
+        List<Report> evicted = new ArrayList<>();
+        for (Report report : snapshotStore.restore()) {
+            if (!entries.isEmpty() && usedBytes + estimateSize(report) > budgetBytes) {
+                logger.info("Keeping snapshot of workspace {} on disk only, the report memory budget is exhausted",
+                        report.getWorkspaceId());
+                continue;
+            }
+            install(report.getWorkspaceId(), report, snapshotStore.loadVersions(report.getWorkspaceId()), evicted);
+        }
+        // neue Uploads dürfen keine Version eines nur auf der Platte liegenden Snapshots erhalten
+        highestSnapshotVersion = snapshotStore.getHighestVersion();
+        evictDerivedData(evicted);
+    }
+
+    /**
+     * Höchste Version aller gehaltenen und beim Start gefundenen Reports, 0 wenn keiner vorhanden ist
+     */
+    public synchronized long getHighestVersion() {
+        return Math.max(highestSnapshotVersion, entries.values().stream()
+                .flatMap(entry -> entry.history.stream())
+                .mapToLong(version -> version.report().getVersion())
+                .max().orElse(0));
+    }
+
+    /**
+     * Liefert den aktuellen Snapshot eines Arbeitsbereichs (ohne Sperre)
+     */
+    public Report get(String workspaceId) {
+        long now = System.nanoTime();
+        if (now - lastSweep >= SWEEP_INTERVAL_NANOS) {
+            sweepIdle(now);
+        }
+        Entry entry = entries.get(workspaceId);
+        if (entry == null) {
+            return snapshotStore.isEnabled() ? loadSnapshot(workspaceId) : null;
+        }
+        entry.lastAccess = now;
+        return entry.report;
+    }
+
+    /**
+     * Mappt den Snapshot eines verdrängten (oder von einer anderen Instanz geschriebenen) Arbeitsbereichs.
+     * Hat sich das Verzeichnis währenddessen geändert, wird das Ergebnis nur zurückgegeben, nicht übernommen.
+     * Für Arbeitsbereiche ohne Snapshot wird nichts gemerkt: die Prüfung kostet nur den Zugriff auf die
+     * Zeigerdatei, und beliebige unbekannte IDs (auch {@code session-*}) belegen keinen Speicher.
+     */
+    private Report loadSnapshot(String workspaceId) {
+        long changes = snapshotChanges.get();
+        Report report = snapshotStore.load(workspaceId);
+        if (report == null) {
+            // ohne Sperre; ein paralleler Upload kann den Arbeitsbereich inzwischen angelegt haben
+            Entry current = entries.get(workspaceId);
+            return current != null ? current.report : null;
+        }
+        List<Report> stored = snapshotStore.loadVersions(workspaceId);
+        List<Report> evicted = new ArrayList<>();
+        synchronized (this) {
+            if (snapshotChanges.get() != changes) {
+                return report;
+            }
+            Entry current = entries.get(workspaceId);
+            if (current != null) {
+                return current.report;
+            }
+            install(workspaceId, report, stored, evicted);
+        }
+        evictDerivedData(evicted);
+        return report;
+    }
+
+    /**
+     * Gleicht einen Arbeitsbereich mit seiner Datei im gemeinsamen Verzeichnis ab (Watcher-Thread)
+     */
+    private void reloadSnapshot(String workspaceId) {
+        snapshotChanges.incrementAndGet();
+        if (!entries.containsKey(workspaceId) && !eventBroadcaster.hasSubscribers(workspaceId)) {
+            return; // wird bei Bedarf geladen
+        }
+
+        Report stored = snapshotStore.load(workspaceId);
+        List<Report> versions = stored != null && !entries.containsKey(workspaceId)
+                ? snapshotStore.loadVersions(workspaceId) : List.of();
+        List<Report> evicted = new ArrayList<>();
+        ReportVersionEvent event = null;
+        synchronized (this) {
+            Entry current = entries.get(workspaceId);
+            if (current == null) {
+                // verbundene Clients sollen vom Upload einer anderen Instanz erfahren
+                if (stored != null) {
+                    install(workspaceId, stored, versions, evicted);
+                    event = new ReportVersionEvent(stored.getVersion(), stored.getFingerprint(), stored.getFileName());
+                }
+            } else if (stored == null) {
+                // von einer anderen Instanz entfernt
+                removeEntry(workspaceId, current, false, evicted);
+                event = ReportVersionEvent.NONE;
+            } else if (stored.getVersion() != current.report.getVersion() || !isMapped(current.report)) {
+                // Upload oder Umschalten auf einer anderen Instanz (die Datei gilt), oder der eigene Report liegt jetzt gemappt vor
+                if (stored.getVersion() != current.report.getVersion()) {
+                    event = new ReportVersionEvent(stored.getVersion(), stored.getFingerprint(), stored.getFileName());
+                }
+                install(workspaceId, stored, List.of(), evicted);
+            }
+        }
+        evictDerivedData(evicted);
+        if (event != null) {
+            eventBroadcaster.publish(workspaceId, ReportEventBroadcaster.REPORT_VERSION, event);
+        }
+    }
+
+    /**
+     * Stellt den Report eines Arbeitsbereichs als aktive Version ein; der bisherige bleibt im Verlauf
+     */
+    public void put(String workspaceId, Report report) {
+        // ein verdrängter (oder von einer anderen Instanz geschriebener) Verlauf bleibt erhalten
+        List<Report> stored = !entries.containsKey(workspaceId) ? snapshotStore.loadVersions(workspaceId) : List.of();
+        List<Report> evicted = new ArrayList<>();
+        long changes;
+        synchronized (this) {
+            changes = snapshotChanges.get();
+            install(workspaceId, report, stored, evicted);
+        }
+        evictDerivedData(evicted);
+        persist(workspaceId, report, changes);
+    }
+
+    /**
+     * Stellt einen Report als aktive Version ein; caller holds the lock
+     *
+     * @param stored weitere Versionen aus dem Snapshot-Verzeichnis, die in den Verlauf aufgenommen werden
+     */
+    private void install(String workspaceId, Report report, List<Report> stored, List<Report> evicted) {
+        Entry previous = entries.get(workspaceId);
+        List<Version> older = new ArrayList<>();
+        if (previous != null) {
+            older.addAll(previous.history);
+        }
+        for (Report version : stored) {
+            older.add(new Version(version, estimateSize(version)));
+        }
+        // absteigend nach Version; bei gleicher Version gewinnt die bereits gehaltene (stabile Sortierung)
+        older.sort(Comparator.comparingLong((Version version) -> version.report().getVersion()).reversed());
+
+        List<Version> history = new ArrayList<>();
+        history.add(new Version(report, estimateSize(report)));
+        for (Version version : older) {
+            long number = version.report().getVersion();
+            if (history.stream().anyMatch(held -> held.report().getVersion() == number)) {
+                continue; // dieselbe Version in anderer Darstellung (gemappt), abgeleitete Daten bleiben gültig
+            }
+            if (history.size() < historySize) {
+                history.add(version);
+            } else {
+                evicted.add(version.report()); // aus dem Verlauf gefallen, verdrängt werden die ältesten
+            }
+        }
+        history.sort(Comparator.comparingLong((Version version) -> version.report().getVersion()).reversed());
+        history.forEach(version -> reportCache.registerVersion(version.report().getVersion()));
+
+        Entry installed = new Entry(report, List.copyOf(history));
+        if (previous != null) {
+            usedBytes -= previous.sizeBytes;
+        }
+        entries.put(workspaceId, installed);
+        usedBytes += installed.sizeBytes;
+
+        if (usedBytes > budgetBytes) {
+            // älteste Arbeitsbereiche verdrängen; der neue Report bleibt, auch wenn er allein das Budget übersteigt
+            // Zugriffszeiten vorher festhalten, sie ändern sich durch parallele Leser
+            List<Candidate> candidates = new ArrayList<>();
+            entries.forEach((id, entry) -> candidates.add(new Candidate(id, entry, entry.lastAccess)));
+            candidates.sort(Comparator.comparingLong(Candidate::lastAccess));
+            for (Candidate candidate : candidates) {
+                if (usedBytes <= budgetBytes) {
+                    break;
+                }
+                if (!candidate.workspaceId().equals(workspaceId)) {
+                    logger.info("Evicting workspace {} ({} bytes) to stay within the report memory budget",
+                            candidate.workspaceId(), candidate.entry().sizeBytes);
+                    removeEntry(candidate.workspaceId(), candidate.entry(), false, evicted);
+                }
+            }
+        }
+        pruneSnapshots(workspaceId);
+    }
+
+    /**
+     * Speichert den Snapshot außerhalb der Sperre. Zur aktiven Version wird er nur, wenn der Report
+     * inzwischen nicht ersetzt oder entfernt wurde (verdrängt darf er sein)
+     */
+    private void persist(String workspaceId, Report report, long changes) {
+        Path staged = snapshotStore.stage(report);
+        if (staged == null) {
+            return;
+        }
+        synchronized (this) {
+            Entry current = entries.get(workspaceId);
+            boolean evictedOnly = current == null && snapshotChanges.get() == changes;
+            if (evictedOnly || current != null && current.report == report) {
+                snapshotStore.commit(workspaceId, report.getVersion(), staged);
+                pruneSnapshots(workspaceId); // die bisher aktive Version ist evtl. schon aus dem Verlauf gefallen
+                return;
+            }
+            if (current != null && current.find(report.getVersion()) == report) {
+                // inzwischen umgeschaltet oder ersetzt, die Version bleibt aber im Verlauf
+                snapshotStore.save(workspaceId, report.getVersion(), staged);
+                return;
+            }
+        }
+        snapshotStore.discard(staged);
+    }
+
+    /**
+     * Schaltet einen Arbeitsbereich auf eine Version aus seinem Verlauf um (ohne Parsen oder Kopieren)
+     *
+     * @return der nun aktive Report, leer wenn die Version nicht (mehr) im Verlauf ist
+     */
+    public Optional<Report> activate(String workspaceId, long version) {
+        Entry entry = entries.get(workspaceId);
+        Report report = entry != null ? entry.find(version) : null;
+        if (report == null || entry.report == report) {
+            return Optional.ofNullable(report);
+        }
+        synchronized (this) {
+            Entry current = entries.get(workspaceId);
+            if (current == null || current.find(version) != report) {
+                return Optional.empty();
+            }
+            entries.put(workspaceId, new Entry(report, current.history));
+            // nur den Zeiger umsetzen; unter der Sperre, damit andere Instanzen (und der eigene Watcher)
+            // nie einen Zeiger sehen, der der aktiven Version widerspricht
+            if (snapshotStore.isEnabled() && !snapshotStore.activate(workspaceId, version)) {
+                // die Datei fehlt (Schreiben fehlgeschlagen, von einer anderen Instanz entfernt): selten, daher unter der Sperre
+                Path staged = snapshotStore.stage(report);
+                if (staged != null) {
+                    snapshotStore.commit(workspaceId, version, staged);
+                }
+            } else {
+                snapshotStore.touch(workspaceId); // die Datei einer älteren Version trägt noch ihren Speicherzeitpunkt
+            }
+        }
+        return Optional.of(report);
+    }
+
+    /**
+     * Alle gehaltenen Versionen eines Arbeitsbereichs, die neueste zuerst
+     */
+    public List<Report> history(String workspaceId) {
+        Entry entry = entries.get(workspaceId);
+        return entry != null ? entry.history.stream().map(Version::report).toList() : List.of();
+    }
+
+    public void remove(String workspaceId) {
+        List<Report> evicted = new ArrayList<>();
+        synchronized (this) {
+            Entry entry = entries.get(workspaceId);
+            if (entry != null) {
+                removeEntry(workspaceId, entry, true, evicted);
+            } else {
+                snapshotStore.delete(workspaceId);
+            }
+            snapshotChanges.incrementAndGet(); // laufende Ladevorgänge dürfen den Report nicht zurückholen
+        }
+        evictDerivedData(evicted);
+    }
+
+    public synchronized long getUsedBytes() {
+        return usedBytes;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private void sweepIdle(long now) {
+        List<Report> evicted = new ArrayList<>();
+        List<String> used = new ArrayList<>();
+        synchronized (this) {
+            long previous = lastSweep;
+            if (now - previous < SWEEP_INTERVAL_NANOS) {
+                return;
+            }
+            lastSweep = now;
+            for (Map.Entry<String, Entry> candidate : entries.entrySet()) {
+                if (now - candidate.getValue().lastAccess > idleTimeoutNanos) {
+                    logger.info("Evicting idle workspace {}", candidate.getKey());
+                    removeEntry(candidate.getKey(), candidate.getValue(), false, evicted);
+                } else if (candidate.getValue().lastAccess - previous > 0) {
+                    used.add(candidate.getKey());
+                }
+            }
+            if (now - lastRetentionSweep >= RETENTION_INTERVAL_NANOS) {
+                lastRetentionSweep = now;
+                deleteUnusedSnapshots();
+            }
+        }
+        evictDerivedData(evicted);
+        if (snapshotStore.isEnabled()) {
+            used.forEach(snapshotStore::touch);
+        }
+    }
+
+    /**
+     * Löscht die Snapshots der Arbeitsbereiche, die länger als die Aufbewahrungsdauer nicht genutzt wurden;
+     * gehaltene bleiben erhalten. Caller holds the lock
+     */
+    private void deleteUnusedSnapshots() {
+        if (!snapshotStore.isEnabled() || retention.isZero() || retention.isNegative()) {
+            return;
+        }
+        List<String> deleted = snapshotStore.deleteUnusedBefore(Instant.now().minus(retention), entries::containsKey);
+        if (!deleted.isEmpty()) {
+            snapshotChanges.incrementAndGet(); // laufende Ladevorgänge dürfen die Reports nicht zurückholen
+        }
+    }
+
+    // caller holds the lock
+    private void removeEntry(String workspaceId, Entry entry, boolean deleteSnapshot, List<Report> evicted) {
+        if (entries.remove(workspaceId, entry)) {
+            usedBytes -= entry.sizeBytes;
+            entry.history.forEach(version -> evicted.add(version.report()));
+            if (deleteSnapshot) {
+                snapshotStore.delete(workspaceId);
+            }
+        }
+    }
+
+    /**
+     * Löscht die Snapshots der Versionen, die älter als der gehaltene Verlauf sind; caller holds the lock
+     */
+    private void pruneSnapshots(String workspaceId) {
+        Entry entry = entries.get(workspaceId);
+        if (entry != null && snapshotStore.isEnabled()) {
+            snapshotStore.deleteVersionsBefore(workspaceId, entry.history.get(entry.history.size() - 1).report().getVersion());
+        }
+    }
+
+    private static boolean isMapped(Report report) {
+        return report.getSections().values().stream()
+                .anyMatch(section -> !section.getDataRows().isEmpty() && section.getDataRows().get(0) instanceof SnapshotRow);
+    }
+
+    private void evictDerivedData(List<Report> reports) {
+        for (Report report : reports) {
+            reportCache.evictVersion(report.getVersion());
+            responseByteCache.evictVersion(report.getVersion());
+        }
+    }
+
+    /**
+     * Geschätzter Heap-Bedarf der Rohdaten eines Reports. Gemappte Snapshots zählen nur mit ihren
+     * Zeilenobjekten, gemeinsam genutzte Zeichenketten einmal je Report.
+     */
+    static long estimateSize(Report report) {
+        long size = 0;
+        Set<String> strings = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (SectionData section : report.getSections().values()) {
+            for (Map<String, String> row : section.getDataRows()) {
+                if (row instanceof SnapshotRow) {
+                    size += SNAPSHOT_ROW_BYTES;
+                    continue;
+                }
+                size += row instanceof CompactRow
+                        ? COMPACT_ROW_BYTES + 4L * row.size()
+                        : ROW_OVERHEAD_BYTES + (long) ENTRY_OVERHEAD_BYTES * row.size();
+                for (String value : row.values()) {
+                    if (value != null && strings.add(value)) {
+                        size += STRING_OVERHEAD_BYTES + value.length();
+                    }
+                }
+            }
+        }
+        return size;
+    }
+
+    private record Candidate(String workspaceId, Entry entry, long lastAccess) {
+    }
+
+    private record Version(Report report, long sizeBytes) {
+    }
+
+    /**
+     * Aktive Version und Verlauf eines Arbeitsbereichs; wird beim Umschalten als Ganzes ersetzt
+     */
+    private static final class Entry {
+        private final Report report;
+        private final List<Version> history; // absteigend nach Version, enthält die aktive
+        private final long sizeBytes;
+        private volatile long lastAccess = System.nanoTime();
+
+        Entry(Report report, List<Version> history) {
+            this.report = report;
+            this.history = history;
+            this.sizeBytes = history.stream().mapToLong(Version::sizeBytes).sum();
+        }
+
+        Report find(long version) {
+            // der Verlauf umfasst nur wenige Versionen
+            for (Version candidate : history) {
+                if (candidate.report().getVersion() == version) {
+                    return candidate.report();
+                }
+            }
+            return null;
+        }
+    }
+}
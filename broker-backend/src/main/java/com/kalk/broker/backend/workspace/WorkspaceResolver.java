@@ -0,0 +1,64 @@
+package com.kalk.broker.backend.workspace;
+
+import java.util.regex.Pattern;
+
+import com.kalk.broker.backend.config.AppConstants;
+import com.kalk.broker.backend.exception.InvalidQueryException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpSession;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+/**
+ * Ermittelt den Arbeitsbereich einer Anfrage. Reihenfolge:
+ * <ol>
+ *     <li>Header {@code X-Workspace-Id} bzw. Parameter {@code workspace} (für EventSource, das keine Header setzen kann)</li>
+ *     <li>die HTTP-Sitzung, falls vorhanden oder per {@code broker.workspaces.session-fallback} erzeugt</li>
+ *     <li>der gemeinsame Standard-Arbeitsbereich (Verhalten wie bei nur einem Benutzer)</li>
+ * </ol>
+ * Außerhalb einer Anfrage (Hintergrund-Threads) gilt der Standard-Arbeitsbereich.
+ */
+@Component
+public class WorkspaceResolver {
+
+    public static final String HEADER = "X-Workspace-Id";
+    public static final String PARAMETER = "workspace";
+    public static final String DEFAULT_WORKSPACE = "default";
+
+    private static final Pattern VALID_ID = Pattern.compile("[A-Za-z0-9._-]{1,64}");
+    private static final String SESSION_PREFIX = "session-";
+
+    private final boolean sessionFallback;
+
+    public WorkspaceResolver(@Value("${broker.workspaces.session-fallback:false}") boolean sessionFallback) {
+        this.sessionFallback = sessionFallback;
+    }
+
+    /**
+     * Arbeitsbereich der aktuellen Anfrage
+     */
+    public String currentWorkspace() {
+        if (RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes) {
+            return resolve(attributes.getRequest());
+        }
+        return DEFAULT_WORKSPACE;
+    }
+
+    public String resolve(HttpServletRequest request) {
+        String workspaceId = request.getHeader(HEADER);
+        if (workspaceId == null || workspaceId.isBlank()) {
+            workspaceId = request.getParameter(PARAMETER);
+        }
+        if (workspaceId != null && !workspaceId.isBlank()) {
+            if (!VALID_ID.matcher(workspaceId).matches()) {
+                throw new InvalidQueryException(AppConstants.ErrorMessages.INVALID_WORKSPACE + workspaceId);
+            }
+            return workspaceId;
+        }
+
+        HttpSession session = request.getSession(sessionFallback);
+        return session != null ? SESSION_PREFIX + session.getId() : DEFAULT_WORKSPACE;
+    }
+}
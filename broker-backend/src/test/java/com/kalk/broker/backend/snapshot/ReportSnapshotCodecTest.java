@@ -0,0 +1,160 @@
+package com.kalk.broker.backend.snapshot;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.kalk.broker.backend.pojo.Report;
+import com.kalk.broker.backend.pojo.SectionData;
+import com.kalk.broker.backend.pojo.Statement;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ReportSnapshotCodecTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void roundTripKeepsReportAndSectionData() throws IOException {
+        Report original = report();
+
+        Report restored = roundTrip(original);
+
+        assertEquals(original.getVersion(), restored.getVersion());
+        assertEquals(original.getFingerprint(), restored.getFingerprint());
+        assertEquals(original.getFileName(), restored.getFileName());
+        assertEquals(original.getWorkspaceId(), restored.getWorkspaceId());
+        assertEquals(original.getStatement(), restored.getStatement());
+        assertEquals(original.getSections().keySet(), restored.getSections().keySet());
+
+        SectionData section = restored.getSection("transaktionen");
+        SectionData expected = original.getSection("transaktionen");
+        assertEquals(expected.getSectionName(), section.getSectionName());
+        assertEquals(expected.getHeaders(), section.getHeaders());
+        assertEquals(expected.getMetadata(), section.getMetadata());
+        assertEquals(expected.getDataRows().size(), section.getDataRows().size());
+        for (int i = 0; i < expected.getDataRows().size(); i++) {
+            Map<String, String> row = section.getDataRows().get(i);
+            assertInstanceOf(SnapshotRow.class, row);
+            assertEquals(expected.getDataRows().get(i), row);
+            assertEquals(new ArrayList<>(expected.getDataRows().get(i).keySet()), new ArrayList<>(row.keySet()));
+        }
+    }
+
+    @Test
+    void decimalColumnsKeepTheirExactNotation() throws IOException {
+        SectionData section = roundTrip(report()).getSection("transaktionen");
+        String dictionary = new String(Files.readAllBytes(directory.resolve("report.snapshot")), StandardCharsets.UTF_8);
+
+        // "Menge" und "Erlös" sind in jeder Zeile kanonische Dezimalzahlen und werden numerisch abgelegt,
+        // ihre Werte stehen daher nicht im Wörterbuch
+        assertFalse(dictionary.contains("1440.5"));
+        assertTrue(dictionary.contains("1.8E2"));
+        assertEquals(List.of("10", "-8", "0"), column(section, "Menge"));
+        assertEquals(List.of("-1500.00", "1440.5", "0.000001"), column(section, "Erlös"));
+        // "Kurs" enthält eine nicht kanonische Schreibweise und bleibt ein Text
+        assertEquals(List.of("150", "1.8E2", "007"), column(section, "Kurs"));
+    }
+
+    @Test
+    void distinguishesNullFromAbsentCells() throws IOException {
+        SectionData section = roundTrip(report()).getSection("transaktionen");
+        Map<String, String> withNull = section.getDataRows().get(1);
+        Map<String, String> withoutCode = section.getDataRows().get(2);
+
+        assertTrue(withNull.containsKey("Code"));
+        assertNull(withNull.get("Code"));
+        assertFalse(withoutCode.containsKey("Code"));
+        assertNull(withoutCode.get("Code"));
+        assertEquals(5, withNull.size());
+        assertEquals(4, withoutCode.size());
+    }
+
+    @Test
+    void emptySectionRoundTrips() throws IOException {
+        SectionData section = roundTrip(report()).getSection("dividenden");
+
+        assertTrue(section.getDataRows().isEmpty());
+        assertEquals(List.of("Datum", "Betrag"), section.getHeaders());
+    }
+
+    @Test
+    void rejectsTruncatedFile() throws IOException {
+        Path file = directory.resolve("report.snapshot");
+        ReportSnapshotCodec.write(report(), file);
+        byte[] bytes = Files.readAllBytes(file);
+
+        for (int length : new int[] {0, 4, 8, bytes.length / 2, bytes.length - 1}) {
+            Path truncated = directory.resolve("truncated-" + length + ".snapshot");
+            Files.write(truncated, Arrays.copyOf(bytes, length));
+            assertThrows(IOException.class, () -> ReportSnapshotCodec.read(truncated), "length " + length);
+        }
+    }
+
+    @Test
+    void rejectsForeignFile() throws IOException {
+        Path file = directory.resolve("foreign.snapshot");
+        Files.writeString(file, "Statement,Header,Feldname,Feldwert\n");
+
+        assertThrows(IOException.class, () -> ReportSnapshotCodec.read(file));
+    }
+
+    private Report roundTrip(Report report) throws IOException {
+        Path file = directory.resolve("report.snapshot");
+        ReportSnapshotCodec.write(report, file);
+        return ReportSnapshotCodec.read(file);
+    }
+
+    private static List<String> column(SectionData section, String name) {
+        return section.getDataRows().stream().map(row -> row.get(name)).toList();
+    }
+
+    private static Report report() {
+        SectionData transactions = new SectionData("Transaktionen");
+        transactions.setHeaders(new ArrayList<>(List.of("Symbol", "Menge", "Kurs", "Erlös", "Code")));
+        transactions.addMetadata("Währung", "USD");
+        transactions.addDataRow(row("AAPL", "10", "150", "-1500.00", "O"));
+        transactions.addDataRow(row("AAPL", "-8", "1.8E2", "1440.5", null));
+        Map<String, String> withoutCode = row("SAP", "0", "007", "0.000001", null);
+        withoutCode.remove("Code");
+        transactions.addDataRow(withoutCode);
+
+        SectionData dividends = new SectionData("Dividenden");
+        dividends.setHeaders(new ArrayList<>(List.of("Datum", "Betrag")));
+
+        Report report = new Report();
+        report.setVersion(42);
+        report.setFingerprint("f00d");
+        report.setFileName("umsätze.csv");
+        report.setWorkspaceId("ws-1");
+        report.setStatement(new Statement("Aktivitätsübersicht", "2024", LocalDateTime.of(2025, 1, 2, 3, 4, 5)));
+        report.addSection("transaktionen", transactions);
+        report.addSection("dividenden", dividends);
+        return report.freeze();
+    }
+
+    private static Map<String, String> row(String symbol, String quantity, String price, String proceeds, String code) {
+        Map<String, String> row = new LinkedHashMap<>();
+        row.put("Symbol", symbol);
+        row.put("Menge", quantity);
+        row.put("Kurs", price);
+        row.put("Erlös", proceeds);
+        row.put("Code", code);
+        return row;
+    }
+}
@@ -12,35 +12,38 @@ import OptionsCalculator from './components/OptionsCalculator';
 import PortfolioPage from './components/PortfolioPage';
 import TransactionsPage from './components/TransactionsPage';
 import {brokerTheme} from './theme/brokerTheme';
+import {ReportEventsProvider} from './hooks/useReportEvents';
 
 function App() {
     return (
         <ThemeProvider theme={brokerTheme}>
             <CssBaseline/>
-            <Router>
-                <Box sx={{minHeight: '100vh', backgroundColor: 'background.default'}}>
-                    <Navigation/>
-                    <Container
-                        maxWidth="xl"
-                        sx={{
-                            px: {xs: 1, sm: 2, md: 3},
-                            py: 0,
-                            minHeight: 'calc(100vh - 80px)'
-                        }}
-                    >
-                        <Routes>
-                            <Route path="/" element={<Dashboard/>}/>
-                            <Route path="/portfolio" element={<PortfolioPage/>}/>
-                            <Route path="/transactions" element={<TransactionsPage/>}/>
-                            <Route path="/tax-analysis" element={<TaxAnalysis/>}/>
-                            <Route path="/data-explorer" element={<DataExplorer/>}/>
-                            <Route path="/help" element={<CodesAndHelp/>}/>
-                            <Route path="/options-calculator" element={<OptionsCalculator/>}/>
-                            <Route path="/section/:sectionName" element={<SectionDetail/>}/>
-                        </Routes>
-                    </Container>
-                </Box>
-            </Router>
+            <ReportEventsProvider>
+                <Router>
+                    <Box sx={{minHeight: '100vh', backgroundColor: 'background.default'}}>
+                        <Navigation/>
+                        <Container
+                            maxWidth="xl"
+                            sx={{
+                                px: {xs: 1, sm: 2, md: 3},
+                                py: 0,
+                                minHeight: 'calc(100vh - 80px)'
+                            }}
+                        >
+                            <Routes>
+                                <Route path="/" element={<Dashboard/>}/>
+                                <Route path="/portfolio" element={<PortfolioPage/>}/>
+                                <Route path="/transactions" element={<TransactionsPage/>}/>
+                                <Route path="/tax-analysis" element={<TaxAnalysis/>}/>
+                                <Route path="/data-explorer" element={<DataExplorer/>}/>
+                                <Route path="/help" element={<CodesAndHelp/>}/>
+                                <Route path="/options-calculator" element={<OptionsCalculator/>}/>
+                                <Route path="/section/:sectionName" element={<SectionDetail/>}/>
+                            </Routes>
+                        </Container>
+                    </Box>
+                </Router>
+            </ReportEventsProvider>
         </ThemeProvider>
     );
 }
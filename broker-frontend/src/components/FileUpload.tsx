@@ -19,6 +19,8 @@ import {
 } from '@mui/material';
 import { CloudUpload, CheckCircle, Error, Description } from '@mui/icons-material';
 import { reportService, UploadResponse } from '../services/api';
+import { UploadProgressEvent } from '../types/api';
+import { useReportEvents, useUploadJobWaiter } from '../hooks/useReportEvents';
 
 interface FileUploadProps {
   onUploadSuccess: () => void;
@@ -29,6 +31,10 @@ const FileUpload: React.FC<FileUploadProps> = ({ onUploadSuccess }) => {
   const [uploadResult, setUploadResult] = useState<UploadResponse | null>(null);
   const [showResultDialog, setShowResultDialog] = useState(false);
   const [selectedFile, setSelectedFile] = useState<File | null>(null);
+  const [progress, setProgress] = useState<UploadProgressEvent | null>(null);
+
+  useReportEvents({ onUploadProgress: setProgress });
+  const waitForJob = useUploadJobWaiter();
 
   const handleFileSelect = (event: React.ChangeEvent<HTMLInputElement>) => {
     const file = event.target.files?.[0];
@@ -43,7 +49,8 @@ const FileUpload: React.FC<FileUploadProps> = ({ onUploadSuccess }) => {
 
     try {
       setUploading(true);
-      const result = await reportService.uploadFile(selectedFile);
+      setProgress(null);
+      const result = await reportService.uploadFile(selectedFile, waitForJob);
       setUploadResult(result);
       setShowResultDialog(true);
       
@@ -129,8 +136,16 @@ const FileUpload: React.FC<FileUploadProps> = ({ onUploadSuccess }) => {
               <Box mt={2}>
                 <Typography variant="body2" gutterBottom>
                   Datei wird hochgeladen...
+                  {progress && ` ${progress.rows} Zeilen, ${progress.sections} Sektionen`}
                 </Typography>
-                <LinearProgress />
+                {progress && progress.totalBytes > 0 ? (
+                  <LinearProgress
+                    variant="determinate"
+                    value={Math.min(100, (progress.bytesRead / progress.totalBytes) * 100)}
+                  />
+                ) : (
+                  <LinearProgress />
+                )}
               </Box>
             )}
           </Box>
@@ -38,7 +38,7 @@ import {
     VisibilityOff
 } from '@mui/icons-material';
 import { useTranslation } from 'react-i18next';
-import { portfolioService } from '../services/api';
+import { reportService } from '../services/api';
 import { Portfolio, Position, PortfolioSummary } from '../types/api';
 
 const PortfolioPage: React.FC = () => {
@@ -57,12 +57,9 @@ const PortfolioPage: React.FC = () => {
     const loadPortfolioData = async () => {
         try {
             setLoading(true);
-            const [portfolioData, summaryData] = await Promise.all([
-                portfolioService.getPortfolio(),
-                portfolioService.getPortfolioSummary()
-            ]);
-            setPortfolio(portfolioData);
-            setSummary(summaryData);
+            const dashboard = await reportService.getDashboard(['portfolio', 'portfolio/summary']);
+            setPortfolio((dashboard.views.portfolio as Portfolio) ?? null);
+            setSummary((dashboard.views['portfolio/summary'] as PortfolioSummary) ?? null);
             setError(null);
         } catch (err) {
             setError('Failed to load portfolio data');
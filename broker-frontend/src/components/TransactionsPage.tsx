@@ -30,7 +30,7 @@ import {
 } from '@mui/material';
 import {AccountBalance, Analytics, Assessment, Euro, ExpandMore as ExpandMoreIcon, TrendingDown, TrendingUp} from '@mui/icons-material';
 import {useTranslation} from 'react-i18next';
-import {type SymbolTransactions, transactionService, type TransactionSummary} from '../services/api';
+import {reportService, type SymbolTransactions, type TransactionSummary} from '../services/api';
 import {Transaction} from '../types/api';
 
 const TransactionsPage: React.FC = () => {
@@ -55,22 +55,17 @@ const TransactionsPage: React.FC = () => {
       setLoading(true);
       setError(null);
 
-      const [
-        allTransactions,
-        byAssetKey,
-        bySymbol,
-        summary
-      ] = await Promise.all([
-        transactionService.getAllTransactions(),
-        transactionService.getTransactionsByAssetKey(),
-        transactionService.getTransactionsBySymbol(),
-        transactionService.getTransactionSummary()
+      const {views} = await reportService.getDashboard([
+        'transactions',
+        'transactions/by-asset-key',
+        'transactions/by-symbol',
+        'transactions/summary'
       ]);
 
-      setTransactions(allTransactions);
-      setTransactionsByAssetKey(byAssetKey);
-      setTransactionsBySymbol(bySymbol);
-      setTransactionSummary(summary);
+      setTransactions((views.transactions as SymbolTransactions[]) ?? []);
+      setTransactionsByAssetKey((views['transactions/by-asset-key'] as Record<string, SymbolTransactions>) ?? {});
+      setTransactionsBySymbol((views['transactions/by-symbol'] as Record<string, SymbolTransactions>) ?? {});
+      setTransactionSummary((views['transactions/summary'] as TransactionSummary) ?? null);
     } catch (err) {
       setError('Fehler beim Laden der Transaktionsdaten');
       console.error('Error loading transaction data:', err);
@@ -1,9 +1,12 @@
 import {useState, useCallback} from 'react';
 import {reportService} from '../services/api';
+import {UploadProgressEvent} from '../types/api';
+import {useReportEvents, useUploadJobWaiter} from './useReportEvents';
 
 interface UseFileUploadReturn {
     uploading: boolean;
     uploadError: string | null;
+    uploadProgress: UploadProgressEvent | null;
     uploadFile: (file: File) => Promise<boolean>;
     clearUploadedFile: () => Promise<void>;
     clearError: () => void;
@@ -12,13 +15,18 @@ interface UseFileUploadReturn {
 export const useFileUpload = (onUploadSuccess?: () => void): UseFileUploadReturn => {
     const [uploading, setUploading] = useState(false);
     const [uploadError, setUploadError] = useState<string | null>(null);
+    const [uploadProgress, setUploadProgress] = useState<UploadProgressEvent | null>(null);
+
+    useReportEvents({onUploadProgress: setUploadProgress});
+    const waitForJob = useUploadJobWaiter();
 
     const uploadFile = useCallback(async (file: File): Promise<boolean> => {
         try {
             setUploading(true);
             setUploadError(null);
+            setUploadProgress(null);
 
-            await reportService.uploadFile(file);
+            await reportService.uploadFile(file, waitForJob);
             onUploadSuccess?.();
             return true;
         } catch (err) {
@@ -28,7 +36,7 @@ export const useFileUpload = (onUploadSuccess?: () => void): UseFileUploadReturn
         } finally {
             setUploading(false);
         }
-    }, [onUploadSuccess]);
+    }, [onUploadSuccess, waitForJob]);
 
     const clearUploadedFile = useCallback(async () => {
         try {
@@ -47,6 +55,7 @@ export const useFileUpload = (onUploadSuccess?: () => void): UseFileUploadReturn
     return {
         uploading,
         uploadError,
+        uploadProgress,
         uploadFile,
         clearUploadedFile,
         clearError,
@@ -1,6 +1,7 @@
-import {useState, useEffect, useCallback} from 'react';
+import {useState, useEffect, useCallback, useRef} from 'react';
 import {reportService} from '../services/api';
 import {ReportSummary, SectionData} from '../types/api';
+import {useReportEvents} from './useReportEvents';
 
 interface UseReportDataReturn {
     summary: ReportSummary | null;
@@ -18,23 +19,21 @@ export const useReportData = (): UseReportDataReturn => {
     const [loading, setLoading] = useState(true);
     const [error, setError] = useState<string | null>(null);
     const [hasUploadedFile, setHasUploadedFile] = useState(false);
+    const loadedVersion = useRef<number | null>(null);
 
     const fetchData = useCallback(async () => {
         try {
             setLoading(true);
             setError(null);
 
-            // Check if file was uploaded first
-            const hasFile = await reportService.hasUploadedFile();
-            setHasUploadedFile(hasFile);
+            // Upload status, summary and sections in a single request
+            const dashboard = await reportService.getDashboard(['summary', 'sections'], {format: 'compact'});
+            setHasUploadedFile(dashboard.hasUploadedFile);
+            loadedVersion.current = dashboard.version;
 
-            if (hasFile) {
-                const [summaryData, sectionsData] = await Promise.all([
-                    reportService.getReportSummary(),
-                    reportService.getAllSections()
-                ]);
-                setSummary(summaryData);
-                setSections(sectionsData);
+            if (dashboard.hasUploadedFile) {
+                setSummary(dashboard.views.summary as ReportSummary);
+                setSections(dashboard.views.sections as Record<string, SectionData>);
             } else {
                 // Clear data if no file uploaded
                 setSummary(null);
@@ -52,6 +51,15 @@ export const useReportData = (): UseReportDataReturn => {
         fetchData();
     }, [fetchData]);
 
+    // Refetch only when the server reports a different report version
+    useReportEvents({
+        onReportVersion: (event) => {
+            if (loadedVersion.current !== null && event.version !== loadedVersion.current) {
+                fetchData();
+            }
+        },
+    });
+
     const clearError = useCallback(() => {
         setError(null);
     }, []);
@@ -0,0 +1,144 @@
+import {createContext, ReactNode, useContext, useEffect, useMemo, useRef} from 'react';
+import {APP_CONFIG} from '../config/constants';
+import {getWorkspaceId} from '../utils/workspace';
+import {PrecomputedEvent, ReportVersionEvent, UploadJob, UploadProgressEvent} from '../types/api';
+import {isUploadJobPending, reportService} from '../services/api';
+
+interface ReportEventHandlers {
+    onReportVersion?: (event: ReportVersionEvent) => void;
+    onUploadProgress?: (event: UploadProgressEvent) => void;
+    onPrecomputed?: (event: PrecomputedEvent) => void;
+    onUploadJob?: (job: UploadJob) => void;
+}
+
+type ReportEventListener = (name: string, data: unknown) => void;
+
+const EVENT_NAMES = ['report-version', 'upload-progress', 'precomputed', 'upload-job'];
+
+// Events can be missed while the stream reconnects, pending jobs are re-checked this often
+const UPLOAD_JOB_CHECK_INTERVAL = 5000;
+
+class ReportEventHub {
+    private readonly listeners = new Set<ReportEventListener>();
+    private lastVersion: ReportVersionEvent | null = null;
+
+    dispatch(name: string, data: unknown) {
+        if (name === 'report-version') {
+            this.lastVersion = data as ReportVersionEvent;
+        }
+        this.listeners.forEach(listener => listener(name, data));
+    }
+
+    subscribe(listener: ReportEventListener): () => void {
+        this.listeners.add(listener);
+        // Late subscribers get the current report version, like a fresh connection would
+        if (this.lastVersion) {
+            listener('report-version', this.lastVersion);
+        }
+        return () => {
+            this.listeners.delete(listener);
+        };
+    }
+
+    // Resolves with the job once it has left QUEUED/PARSING
+    waitForJob(submitted: UploadJob): Promise<UploadJob> {
+        return new Promise((resolve, reject) => {
+            let done = false;
+            let unsubscribe = () => {};
+            let timer: ReturnType<typeof setInterval> | undefined;
+            const finish = (job: UploadJob) => {
+                if (!done && !isUploadJobPending(job)) {
+                    done = true;
+                    unsubscribe();
+                    clearInterval(timer);
+                    resolve(job);
+                }
+            };
+            const check = () => reportService.getUploadJob(submitted.id).then(finish, (error) => {
+                if (!done) {
+                    done = true;
+                    unsubscribe();
+                    clearInterval(timer);
+                    reject(error);
+                }
+            });
+
+            finish(submitted);
+            if (done) {
+                return;
+            }
+            unsubscribe = this.subscribe((name, data) => {
+                if (name === 'upload-job' && (data as UploadJob).id === submitted.id) {
+                    finish(data as UploadJob);
+                }
+            });
+            timer = setInterval(check, UPLOAD_JOB_CHECK_INTERVAL);
+            // the job may have finished before the subscription
+            check();
+        });
+    }
+}
+
+const ReportEventsContext = createContext<ReportEventHub | null>(null);
+
+// Opens one EventSource per page and fans its events out to all useReportEvents subscribers.
+// Browsers allow only ~6 HTTP/1.1 connections per origin, one stream per hook would starve REST calls.
+export const ReportEventsProvider = ({children}: { children: ReactNode }) => {
+    const hub = useMemo(() => new ReportEventHub(), []);
+
+    useEffect(() => {
+        if (typeof EventSource === 'undefined') {
+            return;
+        }
+
+        const source = new EventSource(
+            `${APP_CONFIG.API.BASE_URL}/reports/events?workspace=${encodeURIComponent(getWorkspaceId())}`);
+        EVENT_NAMES.forEach(name => {
+            source.addEventListener(name, (message) => {
+                hub.dispatch(name, JSON.parse((message as MessageEvent).data));
+            });
+        });
+
+        return () => source.close();
+    }, [hub]);
+
+    return <ReportEventsContext.Provider value={hub}>{children}</ReportEventsContext.Provider>;
+};
+
+// Subscribes to the server-sent report events of the surrounding ReportEventsProvider;
+// the browser reconnects automatically
+export const useReportEvents = (handlers: ReportEventHandlers): void => {
+    const hub = useContext(ReportEventsContext);
+    const handlersRef = useRef(handlers);
+    handlersRef.current = handlers;
+
+    useEffect(() => {
+        if (!hub) {
+            return;
+        }
+
+        return hub.subscribe((name, data) => {
+            const current = handlersRef.current;
+            switch (name) {
+                case 'report-version':
+                    current.onReportVersion?.(data as ReportVersionEvent);
+                    break;
+                case 'upload-progress':
+                    current.onUploadProgress?.(data as UploadProgressEvent);
+                    break;
+                case 'precomputed':
+                    current.onPrecomputed?.(data as PrecomputedEvent);
+                    break;
+                case 'upload-job':
+                    current.onUploadJob?.(data as UploadJob);
+                    break;
+            }
+        });
+    }, [hub]);
+};
+
+// Waits for upload jobs via the shared event stream; undefined outside a ReportEventsProvider
+export const useUploadJobWaiter = (): ((job: UploadJob) => Promise<UploadJob>) | undefined => {
+    const hub = useContext(ReportEventsContext);
+    return useMemo(() => hub ? (job: UploadJob) => hub.waitForJob(job) : undefined, [hub]);
+};
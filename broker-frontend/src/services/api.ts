@@ -1,11 +1,13 @@
 import axios, {AxiosResponse} from 'axios';
-import {Dividend, Portfolio, PortfolioSummary, Position, ReportSummary, SectionData, Transaction} from '../types/api';
+import {CompactSectionData, Dashboard, Dividend, HoldingsHistory, LedgerEvent, Page, Portfolio, PortfolioAggregates, PortfolioSummary, Position, ReportHistoryEntry, ReportSummary, SectionData, SectionQuery, Transaction, TransactionQuery, UploadJob} from '../types/api';
 import {TaxRelevantData} from '../types/tax';
 import {APP_CONFIG} from '../config/constants';
+import {getWorkspaceId} from '../utils/workspace';
 
 const api = axios.create({
     baseURL: APP_CONFIG.API.BASE_URL,
     timeout: APP_CONFIG.API.TIMEOUT,
+    headers: {'X-Workspace-Id': getWorkspaceId()},
 });
 
 // Error handling interceptor
@@ -17,31 +19,107 @@ api.interceptors.response.use(
     }
 );
 
+const UPLOAD_JOB_POLL_INTERVAL = 300;
+
+export const isUploadJobPending = (job: UploadJob): boolean => job.status === 'QUEUED' || job.status === 'PARSING';
+
+// Fallback without server-sent events: polls the job status
+const pollUploadJob = async (job: UploadJob): Promise<UploadJob> => {
+    while (isUploadJobPending(job)) {
+        await new Promise(resolve => setTimeout(resolve, UPLOAD_JOB_POLL_INTERVAL));
+        job = await reportService.getUploadJob(job.id);
+    }
+    return job;
+};
+
 // Helper function to extract data from response
 const extractData = <T>(response: AxiosResponse<T>): T => response.data;
 
+// Expands a compact section (headers + value arrays) into the regular row objects
+const expandCompactSection = (section: CompactSectionData): SectionData => ({
+    headers: section.headers.filter(header => !header.startsWith('_')),
+    dataRows: section.rows.map(values => {
+        const row: Record<string, string> = {};
+        section.headers.forEach((header, index) => {
+            const value = values[index];
+            if (value !== null && value !== undefined) {
+                row[header] = value;
+            }
+        });
+        return row;
+    }),
+});
+
 export const reportService = {
     async getAllSections(): Promise<Record<string, SectionData>> {
         return api.get('/reports/sections').then(extractData);
     },
 
+    async getAllSectionsCompact(): Promise<Record<string, SectionData>> {
+        const sections: Record<string, CompactSectionData> =
+            await api.get('/reports/sections', {params: {format: 'compact'}}).then(extractData);
+        return Object.fromEntries(
+            Object.entries(sections).map(([name, section]) => [name, expandCompactSection(section)])
+        );
+    },
+
+    // Loads several views in one request; view names match the single endpoint paths
+    async getDashboard(views: string[], params: {taxYear?: number; format?: string} = {}): Promise<Dashboard> {
+        const dashboard: Dashboard = await api.get('/reports/dashboard', {
+            params: {...params, views: views.join(',')},
+        }).then(extractData);
+        const failed = Object.keys(dashboard.errors ?? {});
+        if (failed.length > 0) {
+            throw new Error(`${failed[0]}: ${dashboard.errors[failed[0]]}`);
+        }
+        if (params.format === 'compact' && dashboard.views.sections) {
+            const sections = dashboard.views.sections as Record<string, CompactSectionData>;
+            dashboard.views.sections = Object.fromEntries(
+                Object.entries(sections).map(([name, section]) => [name, expandCompactSection(section)])
+            );
+        }
+        return dashboard;
+    },
+
     async getSection(sectionName: string): Promise<SectionData> {
         return api.get(`/reports/sections/${sectionName}`).then(extractData);
     },
 
+    async getSectionData(sectionName: string, query: SectionQuery = {}): Promise<Page<Record<string, string>>> {
+        return api.get(`/reports/sections/${sectionName}/data`, {
+            params: query,
+            paramsSerializer: {indexes: null},
+        }).then(extractData);
+    },
+
     async getReportSummary(): Promise<ReportSummary> {
         return api.get('/reports/summary').then(extractData);
     },
 
-    async uploadFile(file: File): Promise<UploadResponse> {
+    // Uploads are processed in the background; resolves once the report is available.
+    // waitForJob should follow the upload-job events (see useUploadJobWaiter), polling is the fallback.
+    async uploadFile(file: File, waitForJob: (job: UploadJob) => Promise<UploadJob> = pollUploadJob): Promise<UploadResponse> {
         const formData = new FormData();
         formData.append('file', file);
 
-        return api.post('/reports/upload', formData, {
+        const submitted: UploadJob = await api.post('/reports/upload', formData, {
             headers: {
                 'Content-Type': 'multipart/form-data',
             },
         }).then(extractData);
+        const job = await waitForJob(submitted);
+
+        return {
+            success: job.status !== 'FAILED',
+            message: job.message ?? '',
+            sectionCount: job.sectionCount,
+            sectionNames: job.sectionNames,
+            fileName: job.fileName,
+        };
+    },
+
+    async getUploadJob(jobId: string): Promise<UploadJob> {
+        return api.get(`/reports/upload/jobs/${jobId}`).then(extractData);
     },
 
     async hasUploadedFile(): Promise<boolean> {
@@ -51,6 +129,15 @@ export const reportService = {
     async clearUploadedFile(): Promise<void> {
         await api.delete('/reports/uploaded-file');
     },
+
+    async getVersions(): Promise<ReportHistoryEntry[]> {
+        return api.get('/reports/versions').then(extractData);
+    },
+
+    // Switches instantly; subscribers of /reports/events receive the new report version
+    async activateVersion(version: number): Promise<ReportHistoryEntry> {
+        return api.post(`/reports/versions/${version}/activate`).then(extractData);
+    },
 } as const;
 
 export const taxService = {
@@ -68,6 +155,10 @@ export const portfolioService = {
         return api.get('/reports/portfolio/summary').then(extractData);
     },
 
+    async getPortfolioAggregates(convertToBaseCurrency: boolean = true): Promise<PortfolioAggregates> {
+        return api.get('/reports/portfolio/aggregates', {params: {convertToBaseCurrency}}).then(extractData);
+    },
+
     async getPositions(): Promise<Position[]> {
         return api.get('/reports/portfolio/positions').then(extractData);
     },
@@ -83,6 +174,18 @@ export const portfolioService = {
     async getPositionDividends(symbol: string): Promise<Dividend[]> {
         return api.get(`/reports/portfolio/positions/${symbol}/dividends`).then(extractData);
     },
+
+    async getHoldingsHistory(from?: string, to?: string): Promise<HoldingsHistory> {
+        return api.get('/reports/portfolio/history', {params: {from, to}}).then(extractData);
+    },
+
+    async getPortfolioAsOf(date: string): Promise<Portfolio> {
+        return api.get('/reports/portfolio/as-of', {params: {date}}).then(extractData);
+    },
+
+    async getLedgerEvents(): Promise<LedgerEvent[]> {
+        return api.get('/reports/portfolio/ledger').then(extractData);
+    },
 } as const;
 
 export const transactionService = {
@@ -98,8 +201,8 @@ export const transactionService = {
         return api.get('/reports/transactions/by-symbol').then(extractData);
     },
 
-    async getAllIndividualTransactions(): Promise<Transaction[]> {
-        return api.get('/reports/transactions/all').then(extractData);
+    async getAllIndividualTransactions(query: TransactionQuery = {}): Promise<Page<Transaction>> {
+        return api.get('/reports/transactions/all', {params: query}).then(extractData);
     },
 
     async getTransactionSummary(): Promise<TransactionSummary> {
@@ -3,6 +3,14 @@ export interface SectionData {
     dataRows: Array<Record<string, string>>;
 }
 
+// format=compact: Spaltennamen einmal, Zeilen als Werte-Arrays
+export interface CompactSectionData {
+    sectionName: string;
+    headers: string[];
+    rows: Array<Array<string | null>>;
+    metadata: Record<string, string>;
+}
+
 export interface ReportSummary {
     sectionCount: number;
     sectionNames: string[];
@@ -65,6 +73,8 @@ export interface PerformanceData {
     totalReturnPercent: number;
     costBasis: number;
     totalDividends: number;
+    timeWeightedReturn?: number;
+    moneyWeightedReturn?: number;
 }
 
 export interface Portfolio {
@@ -77,6 +87,25 @@ export interface Portfolio {
     totalDividends: number;
     positions: Position[];
     currencyTotals: Record<string, number>;
+    performance?: PerformanceData;
+    aggregates?: PortfolioAggregates;
+}
+
+export interface PortfolioTotals {
+    positionCount: number;
+    marketValue: number;
+    costBasis: number;
+    unrealizedPnL: number;
+    realizedPnL: number;
+    dividends: number;
+}
+
+export interface PortfolioAggregates {
+    baseCurrency: string;
+    converted: boolean;
+    total: PortfolioTotals;
+    byCurrency: Record<string, PortfolioTotals>;
+    byAssetCategory: Record<string, PortfolioTotals>;
 }
 
 export interface PortfolioSummary {
@@ -89,3 +118,111 @@ export interface PortfolioSummary {
     reportDate: string;
     baseCurrency: string;
 }
+
+// A series ends with the last day the asset was held; the quantity is 0 afterwards
+export interface HoldingsSeries {
+    assetKey: string;
+    symbol: string;
+    assetCategory: string;
+    currency: string;
+    offset: number;
+    length: number;
+    quantity: number[];
+    costBasis: number[];
+}
+
+export interface HoldingsHistory {
+    startDate: string;
+    endDate: string;
+    series: HoldingsSeries[];
+}
+
+export interface LedgerEvent {
+    type: 'FILL' | 'DIVIDEND' | 'EXPIRY';
+    dateTime: string;
+    assetKey: string;
+    symbol: string;
+    assetCategory?: string;
+    currency: string;
+    quantity: number;
+    amount: number;
+}
+
+export interface Page<T> {
+    items: T[];
+    limit: number;
+    totalCount: number;
+    nextCursor?: string | null;
+    hasMore: boolean;
+    version: number;
+}
+
+export interface Dashboard {
+    hasUploadedFile: boolean;
+    version: number;
+    views: Record<string, unknown>;
+    errors: Record<string, string>;
+}
+
+export interface UploadJob {
+    id: string;
+    fileName: string;
+    workspaceId: string;
+    createdAt: string;
+    status: 'QUEUED' | 'PARSING' | 'AVAILABLE' | 'COMPLETED' | 'FAILED';
+    version: number;
+    sectionNames: string[];
+    sectionCount: number;
+    message: string | null;
+    precomputeError: string | null; // set if only the background precomputation failed
+}
+
+// Versions held per workspace (/reports/versions), newest first
+export interface ReportHistoryEntry {
+    version: number;
+    fingerprint: string;
+    fileName: string;
+    active: boolean;
+}
+
+// Server-Sent Events of /reports/events
+export interface ReportVersionEvent {
+    version: number; // 0 = no report uploaded
+    fingerprint: string | null;
+    fileName: string | null;
+}
+
+export interface UploadProgressEvent {
+    phase: 'reading' | 'parsing' | 'done';
+    bytesRead: number;
+    totalBytes: number;
+    rows: number;
+    sections: number;
+}
+
+export interface PrecomputedEvent {
+    version: number;
+    name: string;
+    durationMillis: number;
+}
+
+export interface TransactionQuery {
+    from?: string;
+    to?: string;
+    symbol?: string;
+    currency?: string;
+    assetCategory?: string;
+    code?: string;
+    sort?: string;
+    cursor?: string;
+    limit?: number;
+    fields?: string;
+}
+
+export interface SectionQuery {
+    filter?: string[];
+    sort?: string;
+    cursor?: string;
+    limit?: number;
+    fields?: string;
+}
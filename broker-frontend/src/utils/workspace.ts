@@ -0,0 +1,23 @@
+// Each browser works in its own server-side workspace; the id survives reloads
+const WORKSPACE_STORAGE_KEY = 'broker.workspaceId';
+
+const createWorkspaceId = (): string =>
+    typeof crypto !== 'undefined' && 'randomUUID' in crypto
+        ? crypto.randomUUID()
+        : `${Date.now().toString(36)}-${Math.random().toString(36).slice(2)}`;
+
+const sessionWorkspaceId = createWorkspaceId();
+
+export const getWorkspaceId = (): string => {
+    try {
+        let workspaceId = localStorage.getItem(WORKSPACE_STORAGE_KEY);
+        if (!workspaceId) {
+            workspaceId = createWorkspaceId();
+            localStorage.setItem(WORKSPACE_STORAGE_KEY, workspaceId);
+        }
+        return workspaceId;
+    } catch {
+        // localStorage unavailable (e.g. private mode): one workspace per page load
+        return sessionWorkspaceId;
+    }
+};